@@ -0,0 +1,35 @@
+package com.hacken.benchmark;
+
+import com.hacken.Application;
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without the web layer against an in-memory H2 database in MySQL mode.
+ * The search cache and the text index are off by default so that repeated invocations measure the database path.
+ */
+@UtilityClass
+public class BenchmarkContext {
+
+    public ConfigurableApplicationContext start(String... overrides) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "logging.level.root=WARN",
+                "records.search.cache.enabled=false",
+                "records.search.text-index.enabled=false"));
+        arguments.addAll(List.of(overrides));
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.stream().map(argument -> "--" + argument).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,83 @@
+package com.hacken.benchmark;
+
+import com.hacken.model.Record;
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic data generators shared by the benchmarks, so every run and every commit measures the same input.
+ */
+@UtilityClass
+public class BenchmarkData {
+
+    private static final long SEED = 42L;
+
+    private static final String[] FIRST_NAMES = {"John", "Alice", "Bob", "Maria", "Olena", "Taras", "Chloé", "Zoë"};
+
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Kovalenko", "Müller", "García", "Shevchenko", "Brown"};
+
+    private static final String[] POSITIONS = {"Developer", "Designer", "QA", "Manager", "Analyst", "DevOps", "Architect"};
+
+    private static final String[] DEPARTMENTS = {"IT", "Sales", "HR", "Finance", "Marketing", "Support"};
+
+    public List<Record> records(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Record> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(new Record((long) i + 1, fullName(random), age(random), pick(random, POSITIONS), pick(random, DEPARTMENTS)));
+        }
+        return records;
+    }
+
+    /**
+     * Writes {@code rows} CSV lines without a header. Roughly one name in sixteen contains the delimiter and is quoted,
+     * so the quoted-field paths of the parsers are exercised as well.
+     */
+    public Path writeCsv(int rows, char delimiter) {
+        try {
+            Path file = Files.createTempFile("records-" + rows + "-", ".csv");
+            file.toFile().deleteOnExit();
+            SplittableRandom random = new SplittableRandom(SEED);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < rows; i++) {
+                    String fullName = fullName(random);
+                    if (random.nextInt(16) == 0) {
+                        fullName = "\"" + fullName + delimiter + " Jr.\"";
+                    }
+                    writer.write(fullName);
+                    writer.write(delimiter);
+                    writer.write(Integer.toString(age(random)));
+                    writer.write(delimiter);
+                    writer.write(pick(random, POSITIONS));
+                    writer.write(delimiter);
+                    writer.write(pick(random, DEPARTMENTS));
+                    writer.write('\n');
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String fullName(SplittableRandom random) {
+        return pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+    }
+
+    private int age(SplittableRandom random) {
+        return 18 + random.nextInt(50);
+    }
+
+    private String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,148 @@
+package com.hacken.benchmark;
+
+import com.hacken.dto.RecordDTO;
+import com.hacken.index.ColumnarRecordSnapshot;
+import com.hacken.model.Record;
+import com.hacken.repository.RecordJdbcRepository;
+import com.hacken.service.RecordService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ColumnarRecordSnapshot#findPage} from several threads. Searches share the read lock, while every
+ * upload or delete applied to the snapshot takes the write lock. {@code reads} runs four searching threads and
+ * nothing else. The {@code readWrite} group runs three searching threads next to one that uploads a small batch and
+ * deletes it again. Its searches wait on the write lock and miss the snapshot while a change is still being applied;
+ * they are reported as {@code served} and {@code bypassed} events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentCriteriaSearchBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"NONE", "POSITION_DEPARTMENT", "FULL_NAME_AGE"})
+    private CriteriaSearchBenchmark.CriteriaShape criteria;
+
+    @Param({"20"})
+    private int pageSize;
+
+    @Param({"1000"})
+    private int uploadRows;
+
+    private ConfigurableApplicationContext context;
+
+    private RecordService recordService;
+
+    private ColumnarRecordSnapshot columnarSnapshot;
+
+    private Pageable pageable;
+
+    private MockMultipartFile upload;
+
+    /**
+     * Counts the searches the snapshot answered and the ones it handed back to the database.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SearchCounters {
+
+        public long served;
+
+        public long bypassed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            served = 0;
+            bypassed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(
+                "records.search.columnar.enabled=true",
+                "records.upload.idempotency.enabled=false");
+        recordService = context.getBean(RecordService.class);
+        columnarSnapshot = context.getBean(ColumnarRecordSnapshot.class);
+        RecordJdbcRepository recordJdbcRepository = context.getBean(RecordJdbcRepository.class);
+        List<Record> records = BenchmarkData.records(rows);
+        for (int from = 0; from < records.size(); from += 1000) {
+            recordJdbcRepository.batchInsert(records.subList(from, Math.min(from + 1000, records.size())));
+        }
+        columnarSnapshot.rebuild();
+        pageable = PageRequest.of(0, pageSize, Sort.by("id"));
+        Path csv = BenchmarkData.writeCsv(uploadRows, ',');
+        upload = new MockMultipartFile("file", "records.csv", "text/csv", Files.readAllBytes(csv));
+        Files.delete(csv);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Page<RecordDTO>> reads(SearchCounters counters) {
+        return findPage(counters);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public Optional<Page<RecordDTO>> search(SearchCounters counters) {
+        return findPage(counters);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void uploadAndDelete() {
+        long batchId = recordService.saveCsvData(upload, ',');
+        recordService.deleteUploadBatch(batchId);
+    }
+
+    private Optional<Page<RecordDTO>> findPage(SearchCounters counters) {
+        Optional<Page<RecordDTO>> page = columnarSnapshot.findPage(criteria.value, pageable);
+        if (page.isPresent()) {
+            counters.served++;
+        } else {
+            counters.bypassed++;
+        }
+        return page;
+    }
+}
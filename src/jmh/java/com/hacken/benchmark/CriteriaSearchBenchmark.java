@@ -0,0 +1,106 @@
+package com.hacken.benchmark;
+
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.index.ColumnarRecordSnapshot;
+import com.hacken.model.Record;
+import com.hacken.repository.RecordJdbcRepository;
+import com.hacken.service.RecordService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code getAllRecordsByCriteria} end to end: specification building, dictionary lookups,
+ * query plus count against H2, or the bitmap lookup of the columnar snapshot. The search cache is disabled
+ * so every database invocation reaches the database. Run with {@code -t 4} to compare scaling across threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CriteriaSearchBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"NONE", "AGE", "POSITION", "POSITION_DEPARTMENT", "FULL_NAME_AGE"})
+    private CriteriaShape criteria;
+
+    @Param({"20"})
+    private int pageSize;
+
+    @Param({"database", "columnar"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+
+    private RecordService recordService;
+
+    public enum CriteriaShape {
+        NONE(new RecordCriteriaDTO(null, null, null, null)),
+        AGE(new RecordCriteriaDTO(null, 30, null, null)),
+        POSITION(new RecordCriteriaDTO(null, null, "developer", null)),
+        POSITION_DEPARTMENT(new RecordCriteriaDTO(null, null, "Developer", "it")),
+        FULL_NAME_AGE(new RecordCriteriaDTO("John Doe", 30, null, null));
+
+        final RecordCriteriaDTO value;
+
+        CriteriaShape(RecordCriteriaDTO value) {
+            this.value = value;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("records.search.columnar.enabled=" + "columnar".equals(engine));
+        recordService = context.getBean(RecordService.class);
+        RecordJdbcRepository recordJdbcRepository = context.getBean(RecordJdbcRepository.class);
+        List<Record> records = BenchmarkData.records(rows);
+        for (int from = 0; from < records.size(); from += 1000) {
+            recordJdbcRepository.batchInsert(records.subList(from, Math.min(from + 1000, records.size())));
+        }
+        if ("columnar".equals(engine)) {
+            context.getBean(ColumnarRecordSnapshot.class).rebuild();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<RecordDTO> firstPage() {
+        RecordCriteriaDTO value = criteria.value;
+        return recordService.getAllRecordsByCriteria(value.fullName(), value.age(), value.position(), value.department(), value.batchId(), 1, pageSize);
+    }
+
+    @Benchmark
+    public Page<RecordDTO> deepPage() {
+        RecordCriteriaDTO value = criteria.value;
+        return recordService.getAllRecordsByCriteria(value.fullName(), value.age(), value.position(), value.department(), value.batchId(), 51, pageSize);
+    }
+
+    @Benchmark
+    public List<Record> cursorPage() {
+        return recordService.getRecordsByCriteriaAfter(criteria.value, 50L * pageSize, pageSize);
+    }
+}
@@ -0,0 +1,131 @@
+package com.hacken.benchmark;
+
+import com.hacken.config.RecordUploadProperties;
+import com.hacken.mapper.RecordMapperUtil;
+import com.hacken.parser.ParallelCsvParser;
+import com.hacken.parser.RecordTokenizer;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParseBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    private int rows;
+
+    @Param({",", ";", "|"})
+    private String delimiter;
+
+    private Path file;
+
+    private ByteBuffer mappedFile;
+
+    private CSVFormat csvFormat;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.writeCsv(rows, delimiter.charAt(0));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        csvFormat = CSVFormat.Builder.create().setDelimiter(delimiter.charAt(0)).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Only the parallel benchmarks take the {@code parallelism} parameter.
+     */
+    @State(Scope.Benchmark)
+    public static class ParallelParsers {
+
+        @Param({"1", "2", "4", "8"})
+        private int parallelism;
+
+        private ParallelCsvParser commonsCsv;
+
+        private ParallelCsvParser recordTokenizer;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            commonsCsv = new ParallelCsvParser(uploadProperties(RecordUploadProperties.ParserEngine.COMMONS_CSV));
+            recordTokenizer = new ParallelCsvParser(uploadProperties(RecordUploadProperties.ParserEngine.RECORD_TOKENIZER));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            commonsCsv.shutdown();
+            recordTokenizer.shutdown();
+        }
+
+        private RecordUploadProperties uploadProperties(RecordUploadProperties.ParserEngine parserEngine) {
+            RecordUploadProperties uploadProperties = new RecordUploadProperties();
+            uploadProperties.setParserEngine(parserEngine);
+            uploadProperties.getParallelParse().setSegmentSize(DataSize.ofMegabytes(1));
+            uploadProperties.getParallelParse().setParallelism(parallelism);
+            return uploadProperties;
+        }
+    }
+
+    @Benchmark
+    public void commonsCsv(Blackhole blackhole) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             CSVParser parser = csvFormat.parse(reader)) {
+            for (CSVRecord csvRecord : parser) {
+                blackhole.consume(RecordMapperUtil.toRecord(csvRecord));
+            }
+        }
+    }
+
+    @Benchmark
+    public void recordTokenizer(Blackhole blackhole) {
+        RecordTokenizer tokenizer = new RecordTokenizer(mappedFile.duplicate(), (byte) delimiter.charAt(0));
+        while (tokenizer.hasNext()) {
+            blackhole.consume(tokenizer.next());
+        }
+    }
+
+    @Benchmark
+    public long parallelCommonsCsv(ParallelParsers parsers, Blackhole blackhole) throws IOException {
+        return parsers.commonsCsv.parse(file, csvFormat, blackhole::consume);
+    }
+
+    @Benchmark
+    public long parallelRecordTokenizer(ParallelParsers parsers, Blackhole blackhole) throws IOException {
+        return parsers.recordTokenizer.parse(file, csvFormat, blackhole::consume);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hacken.benchmark;
+
+import com.hacken.actuator.QueryShape;
+import com.hacken.dto.RecordDTO;
+import com.hacken.mapper.RecordMapperUtil;
+import com.hacken.model.Record;
+import com.hacken.repository.RecordJdbcRepository;
+import com.hacken.repository.RecordRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the entity read path (managed {@code Record} entities mapped to DTOs afterwards) with the DTO projection
+ * used by {@code /records/search} and {@code /records/text}. Both run inside a read-only transaction, as the
+ * entity path did when pages were loaded through the service. Run with {@code -prof gc} to see allocation per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionReadBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"100", "1000", "10000"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private RecordRepository recordRepository;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private Specification<Record> specification;
+
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        recordRepository = context.getBean(RecordRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        RecordJdbcRepository recordJdbcRepository = context.getBean(RecordJdbcRepository.class);
+        List<Record> records = BenchmarkData.records(rows);
+        for (int from = 0; from < records.size(); from += 1000) {
+            recordJdbcRepository.batchInsert(records.subList(from, Math.min(from + 1000, records.size())));
+        }
+        specification = (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("age"), 18);
+        pageable = PageRequest.of(1, pageSize, Sort.by("id"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<RecordDTO> entityPage() {
+        return readOnlyTransaction.execute(status ->
+                recordRepository.findAll(specification, pageable).map(RecordMapperUtil::toRecordDto));
+    }
+
+    @Benchmark
+    public Page<RecordDTO> projectionPage() {
+        return readOnlyTransaction.execute(status -> recordRepository.findAllAsDto(specification, pageable, "benchmark", new QueryShape("benchmark", "")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.hacken.benchmark;
+
+import com.hacken.dto.RecordDTO;
+import com.hacken.mapper.RecordMapperUtil;
+import com.hacken.model.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordMappingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int pageSize;
+
+    private Page<Record> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Record> records = BenchmarkData.records(pageSize);
+        page = new PageImpl<>(records, PageRequest.of(0, pageSize), pageSize * 10L);
+    }
+
+    @Benchmark
+    public Page<RecordDTO> mapPage() {
+        return page.map(RecordMapperUtil::toRecordDto);
+    }
+
+    @Benchmark
+    public List<RecordDTO> mapList() {
+        return page.getContent().stream()
+                .map(RecordMapperUtil::toRecordDto)
+                .toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.hacken.benchmark;
+
+import com.hacken.service.RecordService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code saveCsvData} end to end against H2 for each ingest mode and parser engine, in uploads and rows
+ * per second.
+ * The record table is emptied before every invocation so each upload starts from the same state, and file
+ * fingerprinting is off because every invocation uploads the same file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveCsvDataBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"entity", "jdbc_batch"})
+    private String ingestMode;
+
+    @Param({"commons_csv", "record_tokenizer"})
+    private String parserEngine;
+
+    private ConfigurableApplicationContext context;
+
+    private RecordService recordService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMultipartFile file;
+
+    /**
+     * Counts the rows saved, which JMH reports as a {@code rows} rate next to the uploads per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(
+                "records.upload.ingest-mode=" + ingestMode,
+                "records.upload.parser-engine=" + parserEngine,
+                "records.upload.idempotency.enabled=false");
+        recordService = context.getBean(RecordService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Path csv = BenchmarkData.writeCsv(rows, ',');
+        file = new MockMultipartFile("file", "records.csv", "text/csv", Files.readAllBytes(csv));
+        Files.delete(csv);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearRecords() {
+        jdbcTemplate.update("DELETE FROM record");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveCsvData(RowCounter rowCounter) {
+        recordService.saveCsvData(file, ',');
+        rowCounter.rows += rows;
+    }
+}
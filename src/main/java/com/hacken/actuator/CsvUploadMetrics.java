@@ -1,21 +1,98 @@
 package com.hacken.actuator;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Component
 public class CsvUploadMetrics {
 
+    private final MeterRegistry meterRegistry;
+
     private final Counter csvUploadCounter;
 
+    private final Counter rowsCounter;
+
+    private final Counter bytesCounter;
+
+    private final DistributionSummary fileSizeSummary;
+
+    private final Map<UploadStage, Timer> stageTimers = new EnumMap<>(UploadStage.class);
+
+    private final AtomicInteger inFlightUploads = new AtomicInteger();
+
     public CsvUploadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
         this.csvUploadCounter = meterRegistry.counter("csv.uploads",
                 "type", "upload",
                 "description", "Counts the number of CSV file uploads");
+        this.rowsCounter = Counter.builder("csv.upload.rows")
+                .description("Rows persisted from CSV uploads")
+                .register(meterRegistry);
+        this.bytesCounter = Counter.builder("csv.upload.bytes")
+                .description("Bytes received in CSV uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.fileSizeSummary = DistributionSummary.builder("csv.upload.file.size")
+                .description("Size of uploaded CSV files")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(1024.0 * 1024 * 1024)
+                .register(meterRegistry);
+        for (UploadStage stage : UploadStage.values()) {
+            stageTimers.put(stage, Timer.builder("csv.upload.stage")
+                    .description("Time spent per CSV upload stage")
+                    .tag("stage", stage.tag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(30))
+                    .register(meterRegistry));
+        }
+        meterRegistry.gauge("csv.upload.in.flight", inFlightUploads);
     }
 
     public void incrementCsvUpload() {
         csvUploadCounter.increment();
     }
+
+    public IngestSample startUpload(long sizeInBytes) {
+        IngestSample sample = startUpload();
+        recordUploadSize(sizeInBytes);
+        return sample;
+    }
+
+    public IngestSample startUpload() {
+        inFlightUploads.incrementAndGet();
+        return new IngestSample(this);
+    }
+
+    public void recordUploadSize(long sizeInBytes) {
+        bytesCounter.increment(sizeInBytes);
+        fileSizeSummary.record(sizeInBytes);
+    }
+
+    public void recordStage(UploadStage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRows(long rows) {
+        rowsCounter.increment(rows);
+    }
+
+    public void recordFailure(Throwable failure) {
+        meterRegistry.counter("csv.upload.failures", "exception", failure.getClass().getSimpleName()).increment();
+    }
+
+    void uploadFinished() {
+        inFlightUploads.decrementAndGet();
+    }
 }
@@ -1,33 +1,113 @@
 package com.hacken.actuator;
 
-import lombok.RequiredArgsConstructor;
+import com.hacken.config.RecordDataSourceProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes the database with {@code SELECT 1} on a background thread every {@code interval} and serves the last
+ * result, so health checks never wait for a connection. The primary pool's load is reported alongside it.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
-public class CustomHealthIndicator implements HealthIndicator {
+public class CustomHealthIndicator implements HealthIndicator, DisposableBean {
+
+    private final JdbcTemplate probeTemplate;
+
+    private final HikariDataSource primaryDataSource;
+
+    private final RecordDataSourceProperties.Health properties;
+
+    private final ScheduledExecutorService probeExecutor =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("db-health-probe").factory());
 
-    private final JdbcTemplate jdbcTemplate;
+    private volatile Probe lastProbe;
+
+    public CustomHealthIndicator(HikariDataSource primaryDataSource, RecordDataSourceProperties dataSourceProperties) {
+        this.primaryDataSource = primaryDataSource;
+        this.properties = dataSourceProperties.getHealth();
+        this.probeTemplate = new JdbcTemplate(primaryDataSource);
+        this.probeTemplate.setQueryTimeout((int) Math.max(1, properties.getTimeout().toSeconds()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startProbing() {
+        probeExecutor.scheduleWithFixedDelay(this::probe, 0, properties.getInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
 
     @Override
     public Health health() {
-        boolean isHealthy = checkDatabaseConnection();
-        if (isHealthy) {
-            return Health.up().withDetail("Database", "Available").build();
+        Probe probe = lastProbe;
+        Health.Builder builder;
+        if (probe == null) {
+            builder = Health.unknown().withDetail("Database", "Not checked yet");
+        } else if (isStale(probe)) {
+            builder = Health.unknown().withDetail("Database", "Probe has not completed since " + probe.checkedAt());
+        } else if (probe.error() != null) {
+            builder = Health.down().withDetail("Database", "Not Available").withDetail("error", probe.error());
         } else {
-            return Health.down().withDetail("Database", "Not Available").build();
+            builder = Health.up().withDetail("Database", "Available");
+        }
+        if (probe != null) {
+            builder.withDetail("checkedAt", probe.checkedAt())
+                    .withDetail("probeMillis", probe.latency().toMillis());
         }
+        addPoolDetails(builder);
+        return builder.build();
     }
 
-    private boolean checkDatabaseConnection() {
+    @Override
+    public void destroy() {
+        probeExecutor.shutdownNow();
+    }
+
+    private void probe() {
+        long start = System.nanoTime();
+        String error = null;
         try {
-            jdbcTemplate.execute("SELECT 1");
-            return true;
-        } catch (Exception e) {
-            return false;
+            probeTemplate.execute("SELECT 1");
+        } catch (RuntimeException e) {
+            log.warn("Database health probe failed", e);
+            error = e.getMessage();
+        }
+        lastProbe = new Probe(Instant.now(), Duration.ofNanos(System.nanoTime() - start), error);
+    }
+
+    private boolean isStale(Probe probe) {
+        Duration maxAge = properties.getInterval().multipliedBy(3).plus(properties.getTimeout());
+        return probe.checkedAt().plus(maxAge).isBefore(Instant.now());
+    }
+
+    private void addPoolDetails(Health.Builder builder) {
+        HikariPoolMXBean pool = primaryDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
         }
+        int maximumPoolSize = primaryDataSource.getMaximumPoolSize();
+        double saturation = (double) pool.getActiveConnections() / maximumPoolSize;
+        builder.withDetail("pool", primaryDataSource.getPoolName())
+                .withDetail("activeConnections", pool.getActiveConnections())
+                .withDetail("idleConnections", pool.getIdleConnections())
+                .withDetail("pendingThreads", pool.getThreadsAwaitingConnection())
+                .withDetail("maximumPoolSize", maximumPoolSize)
+                .withDetail("saturation", saturation)
+                .withDetail("saturated", saturation >= properties.getSaturationThreshold() || pool.getThreadsAwaitingConnection() > 0);
+    }
+
+    private record Probe(Instant checkedAt, Duration latency, String error) {
     }
 }
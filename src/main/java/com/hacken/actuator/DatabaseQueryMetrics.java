@@ -0,0 +1,53 @@
+package com.hacken.actuator;
+
+import com.hacken.config.RecordDataSourceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatabaseQueryMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final RecordDataSourceProperties dataSourceProperties;
+
+    public <T> T time(String query, QueryShape shape, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            record(query, shape, System.nanoTime() - start);
+        }
+    }
+
+    private void record(String query, QueryShape shape, long nanos) {
+        Timer.builder("records.db.query")
+                .description("Database query latency by query and filter shape")
+                .tag("query", query)
+                .tag("shape", shape.shape())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        Duration threshold = dataSourceProperties.getSlowQueryThreshold();
+        if (nanos >= threshold.toNanos()) {
+            log.warn("Slow query {} [{}] took {} ms: {}", query, shape.shape(), TimeUnit.NANOSECONDS.toMillis(nanos), shape.detail());
+            Counter.builder("records.db.query.slow")
+                    .description("Queries slower than records.datasource.slow-query-threshold")
+                    .tag("query", query)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
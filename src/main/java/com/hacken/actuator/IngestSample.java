@@ -0,0 +1,93 @@
+package com.hacken.actuator;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Stage timings of a single upload. Parsing and persisting interleave while the file is streamed,
+ * so persist time is summed over chunks and parse time is the remainder of the ingest wall time.
+ */
+public class IngestSample {
+
+    private final CsvUploadMetrics metrics;
+
+    private LongConsumer progress = rows -> {
+    };
+
+    private long ingestStartNanos;
+
+    private long persistNanos;
+
+    private boolean finishOnCompletion;
+
+    private boolean finished;
+
+    IngestSample(CsvUploadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void recordSpool(long nanos) {
+        metrics.recordStage(UploadStage.SPOOL, nanos);
+    }
+
+    /**
+     * Times the commit of the surrounding transaction and keeps the upload in flight until it completes.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        finishOnCompletion = true;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private long commitStartNanos;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStartNanos = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                metrics.recordStage(UploadStage.COMMIT, System.nanoTime() - commitStartNanos);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                markFinished();
+            }
+        });
+    }
+
+    public void startIngest(LongConsumer progress) {
+        this.progress = progress;
+        this.ingestStartNanos = System.nanoTime();
+    }
+
+    public void recordPersist(long rows, long nanos) {
+        persistNanos += nanos;
+        metrics.recordRows(rows);
+        progress.accept(rows);
+    }
+
+    public void finishIngest() {
+        long ingestNanos = System.nanoTime() - ingestStartNanos;
+        metrics.recordStage(UploadStage.PERSIST, persistNanos);
+        metrics.recordStage(UploadStage.PARSE, Math.max(0, ingestNanos - persistNanos));
+    }
+
+    public void finish() {
+        if (!finishOnCompletion) {
+            markFinished();
+        }
+    }
+
+    private synchronized void markFinished() {
+        if (!finished) {
+            finished = true;
+            metrics.uploadFinished();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.hacken.actuator;
+
+import com.hacken.dto.RecordCriteriaDTO;
+
+import java.util.StringJoiner;
+
+/**
+ * Groups queries for {@link DatabaseQueryMetrics}: {@code shape} is a low-cardinality tag (which filters are set),
+ * {@code detail} the concrete arguments, only written to the slow-query log.
+ */
+public record QueryShape(String shape, String detail) {
+
+    public static QueryShape of(RecordCriteriaDTO criteria) {
+        StringJoiner shape = new StringJoiner("+");
+        if (criteria.fullName() != null) {
+            shape.add("fullName");
+        }
+        if (criteria.age() != null) {
+            shape.add("age");
+        }
+        if (criteria.position() != null) {
+            shape.add("position");
+        }
+        if (criteria.department() != null) {
+            shape.add("department");
+        }
+        if (criteria.batchId() != null) {
+            shape.add("batch");
+        }
+        return new QueryShape(shape.length() == 0 ? "all" : shape.toString(), criteria.toString());
+    }
+
+    public static QueryShape ofText(String text, boolean indexed) {
+        return new QueryShape(indexed ? "indexed" : "scan", "text=" + text);
+    }
+}
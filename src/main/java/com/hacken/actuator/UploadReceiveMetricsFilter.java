@@ -0,0 +1,48 @@
+package com.hacken.actuator;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times how long the container takes to read a multipart upload before the controller sees it.
+ * The parts are cached by the container, so the multipart resolver reuses them afterwards.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadReceiveMetricsFilter extends OncePerRequestFilter {
+
+    private final CsvUploadMetrics csvUploadMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return !HttpMethod.POST.matches(request.getMethod())
+                || contentType == null
+                || !contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || !request.getRequestURI().startsWith("/records/upload");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            request.getParts();
+            csvUploadMetrics.recordStage(UploadStage.RECEIVE, System.nanoTime() - start);
+        } catch (IOException | ServletException | IllegalStateException e) {
+            log.debug("Multipart request could not be read, leaving it to the multipart resolver", e);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
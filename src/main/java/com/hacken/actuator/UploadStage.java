@@ -0,0 +1,15 @@
+package com.hacken.actuator;
+
+import java.util.Locale;
+
+public enum UploadStage {
+    RECEIVE,
+    SPOOL,
+    PARSE,
+    PERSIST,
+    COMMIT;
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,39 @@
+package com.hacken.admission;
+
+import com.hacken.config.RecordAdmissionProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+
+/**
+ * Identifies the caller for the per-client quotas of every {@link AdmissionLimiter}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionClients {
+
+    private final RecordAdmissionProperties properties;
+
+    /**
+     * Returns the authenticated principal if there is one, otherwise the remote address. The {@code client-header}
+     * is only believed when the request comes from one of the {@code trusted-proxies}, so a client cannot pick its
+     * own quota key.
+     */
+    public String resolveClient(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        if (properties.getTrustedProxies().contains(remoteAddress)) {
+            String clientId = request.getHeader(properties.getClientHeader());
+            if (StringUtils.hasText(clientId)) {
+                return "client:" + clientId.trim();
+            }
+        }
+        return "address:" + remoteAddress;
+    }
+}
@@ -0,0 +1,131 @@
+package com.hacken.admission;
+
+import com.hacken.config.AdmissionProperties;
+import com.hacken.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Bounds how many operations of one kind hold a slot at once. Operations beyond {@code max-concurrent} wait in a
+ * bounded queue for at most {@code max-wait}; a full queue, an expired wait or a client over its quota is rejected
+ * with the exception built by {@code rejection}. Metrics are published under {@code metricPrefix}.
+ */
+@Slf4j
+public class AdmissionLimiter {
+
+    private final String operation;
+
+    private final String metricPrefix;
+
+    private final AdmissionProperties properties;
+
+    private final BiFunction<String, Duration, ? extends AdmissionRejectedException> rejection;
+
+    private final Semaphore slots;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Map<String, Integer> operationsPerClient = new ConcurrentHashMap<>();
+
+    private final Timer waitTimer;
+
+    private final MeterRegistry meterRegistry;
+
+    protected AdmissionLimiter(String operation, String metricPrefix, AdmissionProperties properties,
+                               BiFunction<String, Duration, ? extends AdmissionRejectedException> rejection,
+                               MeterRegistry meterRegistry) {
+        this.operation = operation;
+        this.metricPrefix = metricPrefix;
+        this.properties = properties;
+        this.rejection = rejection;
+        this.slots = new Semaphore(properties.getMaxConcurrent(), true);
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder(metricPrefix + ".wait")
+                .description("Time " + operation + "s waited for a slot")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        meterRegistry.gauge(metricPrefix + ".queue", waiting);
+        meterRegistry.gauge(metricPrefix + ".active", active);
+    }
+
+    public AdmissionPermit admit(String clientId) {
+        if (!properties.isEnabled()) {
+            return AdmissionPermit.UNLIMITED;
+        }
+        int clientOperations = operationsPerClient.merge(clientId, 1, Integer::sum);
+        boolean admitted = false;
+        try {
+            if (clientOperations > properties.getPerClientLimit()) {
+                throw reject("client_quota", "Too many concurrent " + operation + "s for client " + clientId);
+            }
+            acquireSlot();
+            admitted = true;
+            active.incrementAndGet();
+            return new AdmissionPermit(this, clientId);
+        } finally {
+            if (!admitted) {
+                releaseClient(clientId);
+            }
+        }
+    }
+
+    void release(String clientId) {
+        active.decrementAndGet();
+        slots.release();
+        releaseClient(clientId);
+    }
+
+    private void acquireSlot() {
+        long start = System.nanoTime();
+        try {
+            if (slots.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (waiting.incrementAndGet() > properties.getMaxQueued()) {
+                waiting.decrementAndGet();
+                throw reject("queue_full", "The " + operation + " queue is full");
+            }
+            try {
+                if (!slots.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw reject("timeout", "Timed out waiting for an " + operation + " slot");
+                }
+            } finally {
+                waiting.decrementAndGet();
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("interrupted", "Interrupted while waiting for an " + operation + " slot");
+        }
+    }
+
+    private void releaseClient(String clientId) {
+        operationsPerClient.computeIfPresent(clientId, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private AdmissionRejectedException reject(String reason, String message) {
+        log.warn("{} rejected ({}): {}", StringUtils.capitalize(operation), reason, message);
+        Counter.builder(metricPrefix + ".rejections")
+                .description("Rejected " + operation + "s by reason")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return rejection.apply(message, properties.getRetryAfter());
+    }
+}
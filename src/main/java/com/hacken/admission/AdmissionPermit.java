@@ -0,0 +1,29 @@
+package com.hacken.admission;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A slot granted by an {@link AdmissionLimiter}. Closing it more than once releases the slot only once.
+ */
+public class AdmissionPermit implements AutoCloseable {
+
+    static final AdmissionPermit UNLIMITED = new AdmissionPermit(null, null);
+
+    private final AdmissionLimiter limiter;
+
+    private final String clientId;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    AdmissionPermit(AdmissionLimiter limiter, String clientId) {
+        this.limiter = limiter;
+        this.clientId = clientId;
+    }
+
+    @Override
+    public void close() {
+        if (limiter != null && released.compareAndSet(false, true)) {
+            limiter.release(clientId);
+        }
+    }
+}
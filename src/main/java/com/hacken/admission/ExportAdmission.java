@@ -0,0 +1,18 @@
+package com.hacken.admission;
+
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.exception.ExportRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds how many exports stream at once. An export holds a connection, and on MySQL a second one for dictionary
+ * reloads, for as long as the client keeps reading, so without a cap a few slow downloads could drain the pool.
+ */
+@Component
+public class ExportAdmission extends AdmissionLimiter {
+
+    public ExportAdmission(RecordSearchProperties searchProperties, MeterRegistry meterRegistry) {
+        super("export", "records.export.admission", searchProperties.getExport().getAdmission(), ExportRejectedException::new, meterRegistry);
+    }
+}
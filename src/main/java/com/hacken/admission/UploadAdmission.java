@@ -0,0 +1,17 @@
+package com.hacken.admission;
+
+import com.hacken.config.RecordUploadProperties;
+import com.hacken.exception.UploadRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds how many uploads ingest at once so that searches keep a share of the connection pool.
+ */
+@Component
+public class UploadAdmission extends AdmissionLimiter {
+
+    public UploadAdmission(RecordUploadProperties uploadProperties, MeterRegistry meterRegistry) {
+        super("upload", "csv.upload.admission", uploadProperties.getAdmission(), UploadRejectedException::new, meterRegistry);
+    }
+}
@@ -0,0 +1,211 @@
+package com.hacken.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.dictionary.ValueNormalizer;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.event.RecordCell;
+import com.hacken.event.RecordsDeletedEvent;
+import com.hacken.event.RecordsPersistedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded cache of criteria search pages. Keys hold the criteria normalized with {@link ValueNormalizer}, so
+ * criteria the database collation treats as equal share one entry. After an upload or a batch rollback commits, only
+ * the entries whose criteria may match one of the changed rows are evicted. Values are compared case- and
+ * accent-insensitively, like the database collation, so a match is never missed.
+ * <p>
+ * Every change bumps a generation before evicting. A page is only stored if no change happened since its load
+ * started, so a load that read the database before a commit cannot be stored after that commit's eviction.
+ */
+@Slf4j
+@Component
+public class RecordSearchCache {
+
+    private static final int FULL_NAME = 1;
+    private static final int AGE = 2;
+    private static final int POSITION = 4;
+    private static final int DEPARTMENT = 8;
+    private static final int BATCH = 16;
+
+    private final Cache<CacheKey, Page<RecordDTO>> cache;
+
+    private final boolean enabled;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecordSearchCache(RecordSearchProperties searchProperties, MeterRegistry meterRegistry) {
+        RecordSearchProperties.Cache properties = searchProperties.getCache();
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "records.search");
+    }
+
+    public Page<RecordDTO> get(RecordCriteriaDTO criteria, int pageNum, int pageSize, Supplier<Page<RecordDTO>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CacheKey key = key(criteria, pageNum, pageSize);
+        Page<RecordDTO> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        Page<RecordDTO> page = loader.get();
+        putIfCurrent(key, page, loadGeneration);
+        return page;
+    }
+
+    public Optional<Page<RecordDTO>> find(RecordCriteriaDTO criteria, int pageNum, int pageSize) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(key(criteria, pageNum, pageSize)));
+    }
+
+    /**
+     * Returns the current generation; read it before loading a page that is later stored with {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(RecordCriteriaDTO criteria, int pageNum, int pageSize, Page<RecordDTO> page, long loadGeneration) {
+        if (enabled) {
+            putIfCurrent(key(criteria, pageNum, pageSize), page, loadGeneration);
+        }
+    }
+
+    /**
+     * Stores the page unless a change happened since its load started. The check runs inside the map's atomic
+     * compute, so a store either fails the check or lands before the eviction that follows the bump.
+     */
+    private void putIfCurrent(CacheKey key, Page<RecordDTO> page, long loadGeneration) {
+        cache.asMap().compute(key, (k, current) -> generation.get() == loadGeneration ? page : current);
+    }
+
+    /**
+     * Persisted events carry the full-name hash bucket of each cell instead of the names, so a full-name filter is
+     * compared by its bucket: it is evicted when a new cell matches its other criteria and falls into its bucket.
+     */
+    @EventListener
+    public void onRecordsPersisted(RecordsPersistedEvent event) {
+        generation.incrementAndGet();
+        evictMatching(event.cells().keySet().stream()
+                .map(cell -> new ChangedRow(String.valueOf(cell.fullNameHash()), cell.age(), cell.position(), cell.department(),
+                        cell.batchId()))
+                .toList(), fullName -> String.valueOf(RecordCell.fullNameHash(fullName)));
+    }
+
+    @EventListener
+    public void onRecordsDeleted(RecordsDeletedEvent event) {
+        generation.incrementAndGet();
+        evictMatching(event.records().stream()
+                .map(record -> new ChangedRow(ValueNormalizer.normalize(record.getFullName()), record.getAge(), record.getPosition(),
+                        record.getDepartment(), record.getBatchId()))
+                .toList(), ValueNormalizer::normalize);
+    }
+
+    /**
+     * Evicts the entries whose criteria match one of the rows. {@code fullNameKey} turns a criteria full name into
+     * the form the rows carry it in.
+     */
+    private void evictMatching(Collection<ChangedRow> rows, UnaryOperator<String> fullNameKey) {
+        if (rows.isEmpty() || cache.estimatedSize() == 0) {
+            return;
+        }
+        Map<Integer, Set<List<String>>> projectionsByMask = new HashMap<>();
+        long sizeBefore = cache.estimatedSize();
+        cache.asMap().keySet().removeIf(key -> {
+            RecordCriteriaDTO criteria = key.criteria();
+            int mask = mask(criteria);
+            Set<List<String>> projections = projectionsByMask.computeIfAbsent(mask, m -> rows.stream()
+                    .map(row -> project(m, row.fullName(), row.age(), row.position(), row.department(), row.batchId()))
+                    .collect(Collectors.toSet()));
+            String fullName = criteria.fullName() == null ? null : fullNameKey.apply(criteria.fullName());
+            return projections.contains(project(mask, fullName, criteria.age(), criteria.position(), criteria.department(),
+                    criteria.batchId()));
+        });
+        log.debug("Evicted {} search cache entries for {} changed rows or cells", sizeBefore - cache.estimatedSize(), rows.size());
+    }
+
+    private static int mask(RecordCriteriaDTO criteria) {
+        return (criteria.fullName() != null ? FULL_NAME : 0)
+                | (criteria.age() != null ? AGE : 0)
+                | (criteria.position() != null ? POSITION : 0)
+                | (criteria.department() != null ? DEPARTMENT : 0)
+                | (criteria.batchId() != null ? BATCH : 0);
+    }
+
+    private static List<String> project(int mask, String fullName, Integer age, String position, String department,
+                                        Long batchId) {
+        List<String> projection = new ArrayList<>(5);
+        if ((mask & FULL_NAME) != 0) {
+            projection.add(fullName);
+        }
+        if ((mask & AGE) != 0) {
+            projection.add(String.valueOf(age));
+        }
+        if ((mask & POSITION) != 0) {
+            projection.add(ValueNormalizer.normalize(position));
+        }
+        if ((mask & DEPARTMENT) != 0) {
+            projection.add(ValueNormalizer.normalize(department));
+        }
+        if ((mask & BATCH) != 0) {
+            projection.add(String.valueOf(batchId));
+        }
+        return projection;
+    }
+
+    private static CacheKey key(RecordCriteriaDTO criteria, int pageNum, int pageSize) {
+        return new CacheKey(new RecordCriteriaDTO(normalize(criteria.fullName()), criteria.age(), normalize(criteria.position()),
+                normalize(criteria.department()), criteria.batchId()), pageNum, pageSize);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : ValueNormalizer.normalize(value);
+    }
+
+    /**
+     * A changed row or cell, with its full name already in the form the criteria are compared in.
+     */
+    private record ChangedRow(
+            String fullName,
+            Integer age,
+            String position,
+            String department,
+            Long batchId
+    ) {
+    }
+
+    private record CacheKey(
+            RecordCriteriaDTO criteria,
+            int pageNum,
+            int pageSize
+    ) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.hacken.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Limits of one {@link com.hacken.admission.AdmissionLimiter}; uploads and exports each bind their own.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private int maxConcurrent = 4;
+
+    private int maxQueued = 16;
+
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    private int perClientLimit = 2;
+
+    private Duration retryAfter = Duration.ofSeconds(5);
+}
@@ -0,0 +1,73 @@
+package com.hacken.config;
+
+import com.hacken.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exposes the primary pool behind a lazy proxy, which defers fetching a physical connection until the first
+ * statement: transactions answered from the in-memory indexes never take one, and the read-only flag is known
+ * before a pool is picked. Once {@code records.datasource.replicas} is configured, read-only transactions are
+ * served by {@link ReplicaDataSource}.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "records.datasource.replicas[0]", name = "url")
+    public ReplicaDataSource replicaDataSource(RecordDataSourceProperties properties, HikariDataSource primaryDataSource,
+                                               MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            RecordDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername());
+            config.setPassword(replica.getPassword());
+            if (replica.getDriverClassName() != null) {
+                config.setDriverClassName(replica.getDriverClassName());
+            }
+            config.setMaximumPoolSize(properties.getReplicaPoolSize());
+            config.setConnectionTimeout(properties.getReplicaConnectionTimeout().toMillis());
+            config.setInitializationFailTimeout(-1);
+            config.setReadOnly(true);
+            config.setMetricRegistry(meterRegistry);
+            // Started here rather than on the first getConnection, which starts the pool inside a synchronized block:
+            // an index bootstrap on a virtual thread would pin its carrier there while it blocks.
+            HikariDataSource dataSource = new HikariDataSource(config);
+            replicas.add(dataSource);
+        }
+        return new ReplicaDataSource(replicas, primaryDataSource, properties.getReplicaRetryInterval(),
+                properties.getPrimaryReadWindow(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ObjectProvider<ReplicaDataSource> replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        replicaDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        return dataSource;
+    }
+}
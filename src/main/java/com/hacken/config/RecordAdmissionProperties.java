@@ -0,0 +1,20 @@
+package com.hacken.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "records.admission")
+public class RecordAdmissionProperties {
+
+    private String clientHeader = "X-Client-Id";
+
+    private List<String> trustedProxies = new ArrayList<>();
+}
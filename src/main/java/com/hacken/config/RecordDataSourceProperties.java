@@ -0,0 +1,55 @@
+package com.hacken.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "records.datasource")
+public class RecordDataSourceProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private int replicaPoolSize = 10;
+
+    private Duration replicaConnectionTimeout = Duration.ofSeconds(2);
+
+    private Duration replicaRetryInterval = Duration.ofSeconds(30);
+
+    private Duration primaryReadWindow = Duration.ofSeconds(5);
+
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+    private Health health = new Health();
+
+    @Getter
+    @Setter
+    public static class Health {
+
+        private Duration interval = Duration.ofSeconds(10);
+
+        private Duration timeout = Duration.ofSeconds(2);
+
+        private double saturationThreshold = 0.9;
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+    }
+}
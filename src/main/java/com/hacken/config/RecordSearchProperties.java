@@ -0,0 +1,87 @@
+package com.hacken.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "records.search")
+public class RecordSearchProperties {
+
+    private TextIndex textIndex = new TextIndex();
+
+    private Cache cache = new Cache();
+
+    private Export export = new Export();
+
+    private Facets facets = new Facets();
+
+    private Columnar columnar = new Columnar();
+
+    private Batch batch = new Batch();
+
+    @Getter
+    @Setter
+    public static class TextIndex {
+
+        private boolean enabled = true;
+
+        private int maxCandidates = 10_000;
+
+        private int bootstrapBatchSize = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 10_000;
+
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+
+        private int fetchSize = 1000;
+
+        private AdmissionProperties admission = new AdmissionProperties(true, 2, 8, Duration.ofSeconds(5), 1, Duration.ofSeconds(30));
+    }
+
+    @Getter
+    @Setter
+    public static class Facets {
+
+        private boolean enabled = true;
+
+        private int ageBucketSize = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Columnar {
+
+        private boolean enabled = false;
+
+        private int bootstrapBatchSize = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        private int maxQueries = 50;
+
+        private int maxConcurrency = 4;
+
+        private int maxMergedRows = 1000;
+    }
+}
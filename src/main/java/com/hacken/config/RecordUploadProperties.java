@@ -0,0 +1,89 @@
+package com.hacken.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "records.upload")
+public class RecordUploadProperties {
+
+    private IngestMode ingestMode = IngestMode.JDBC_BATCH;
+
+    private int batchSize = 1000;
+
+    private ParserEngine parserEngine = ParserEngine.COMMONS_CSV;
+
+    private DataSize tokenizerWindowSize = DataSize.ofMegabytes(64);
+
+    private ParallelParse parallelParse = new ParallelParse();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Stream stream = new Stream();
+
+    private AdmissionProperties admission = new AdmissionProperties();
+
+    private Resumable resumable = new Resumable();
+
+    private Rollback rollback = new Rollback();
+
+    @Getter
+    @Setter
+    public static class ParallelParse {
+
+        private boolean enabled = false;
+
+        private DataSize segmentSize = DataSize.ofMegabytes(4);
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+
+        private boolean enabled = true;
+
+        private boolean rowDedup = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Stream {
+
+        private DataSize maxSize = DataSize.ofGigabytes(10);
+
+        private DataSize maxDecompressedSize = DataSize.ofGigabytes(50);
+    }
+
+    @Getter
+    @Setter
+    public static class Resumable {
+
+        private int chunkSize = 10000;
+
+        private int maxReportedErrors = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Rollback {
+
+        private int chunkSize = 5000;
+    }
+
+    public enum IngestMode {
+        ENTITY,
+        JDBC_BATCH
+    }
+
+    public enum ParserEngine {
+        COMMONS_CSV,
+        RECORD_TOKENIZER
+    }
+}
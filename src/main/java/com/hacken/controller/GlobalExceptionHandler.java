@@ -1,10 +1,18 @@
 package com.hacken.controller;
 
+import com.hacken.exception.AdmissionRejectedException;
 import com.hacken.exception.CustomError;
+import com.hacken.exception.DuplicateUploadException;
 import com.hacken.exception.TypeException;
+import com.hacken.exception.UploadBatchNotFoundException;
+import com.hacken.exception.UploadCheckpointNotFoundException;
+import com.hacken.exception.UploadJobNotFoundException;
+import com.hacken.exception.UploadTooLargeException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -21,6 +29,44 @@ public class GlobalExceptionHandler {
         return new CustomError(req.getRequestURI(), ex.getMessage(), HttpStatus.BAD_REQUEST.value(), LocalDateTime.now());
     }
 
+    @ExceptionHandler(UploadJobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public CustomError handleUploadJobNotFoundException(UploadJobNotFoundException ex, HttpServletRequest req) {
+        return new CustomError(req.getRequestURI(), ex.getMessage(), HttpStatus.NOT_FOUND.value(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(UploadCheckpointNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public CustomError handleUploadCheckpointNotFoundException(UploadCheckpointNotFoundException ex, HttpServletRequest req) {
+        return new CustomError(req.getRequestURI(), ex.getMessage(), HttpStatus.NOT_FOUND.value(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(UploadBatchNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public CustomError handleUploadBatchNotFoundException(UploadBatchNotFoundException ex, HttpServletRequest req) {
+        return new CustomError(req.getRequestURI(), ex.getMessage(), HttpStatus.NOT_FOUND.value(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(DuplicateUploadException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public CustomError handleDuplicateUploadException(DuplicateUploadException ex, HttpServletRequest req) {
+        return new CustomError(req.getRequestURI(), ex.getMessage(), HttpStatus.CONFLICT.value(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public CustomError handleUploadTooLargeException(UploadTooLargeException ex, HttpServletRequest req) {
+        return new CustomError(req.getRequestURI(), ex.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE.value(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<CustomError> handleAdmissionRejectedException(AdmissionRejectedException ex, HttpServletRequest req) {
+        CustomError error = new CustomError(req.getRequestURI(), ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS.value(), LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(error);
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public CustomError handleDataIntegrityViolationException(DataIntegrityViolationException ex, HttpServletRequest req) {
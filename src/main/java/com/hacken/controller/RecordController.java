@@ -1,9 +1,21 @@
 package com.hacken.controller;
 
 import com.hacken.actuator.CsvUploadMetrics;
+import com.hacken.admission.AdmissionClients;
+import com.hacken.dto.BatchSearchQueryDTO;
+import com.hacken.dto.CursorPageDTO;
+import com.hacken.dto.RecordCriteriaDTO;
 import com.hacken.dto.RecordDTO;
+import com.hacken.dto.RecordFacetsDTO;
+import com.hacken.dto.UploadBatchDTO;
+import com.hacken.dto.UploadBatchDeletionDTO;
+import com.hacken.dto.UploadJobDTO;
+import com.hacken.dto.UploadReportDTO;
 import com.hacken.exception.CustomError;
+import com.hacken.export.ExportFormat;
 import com.hacken.facade.RecordFacade;
+import com.hacken.parser.CsvDelimiters;
+import com.hacken.parser.UploadEncoding;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,19 +23,32 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Slf4j
 @Controller
@@ -35,26 +60,188 @@ public class RecordController {
 
     private final CsvUploadMetrics csvUploadMetrics;
 
+    private final AdmissionClients admissionClients;
+
     @Operation(
             summary = "Upload CSV file",
             description = "Uploads a CSV file and saves the data to the database. You can use such delimiters as ',', ';', '|', ':', '-', '.' ")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "File uploaded and data saved successfully"),
+            @ApiResponse(responseCode = "201", description = "File uploaded and data saved successfully, Location points to its upload batch"),
             @ApiResponse(responseCode = "400", description = "Invalid delimiter",
                     content = @Content(schema = @Schema(implementation = CustomError.class))),
             @ApiResponse(responseCode = "400", description = "Failed to upload file",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "409", description = "File has already been uploaded",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent uploads, retry after the Retry-After header",
                     content = @Content(schema = @Schema(implementation = CustomError.class)))
     })
     @PostMapping(value = "/records/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<String> uploadCsv(@Parameter(name = "CSV file to upload", required = true)
                                             @RequestPart("file") MultipartFile file,
                                             @Parameter(name = "delimiter", example = ",")
-                                            @RequestParam("delimiter") char delimiter) {
+                                            @RequestParam("delimiter") char delimiter,
+                                            HttpServletRequest request) {
         log.info("Attempting to save data from MultipartFile");
-        recordFacade.saveCsvData(file, delimiter);
+        long batchId = recordFacade.saveCsvData(file, delimiter, admissionClients.resolveClient(request));
+        csvUploadMetrics.incrementCsvUpload();
+        log.info("Successfully saved records to the database in batch {}.", batchId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/records/batches/" + batchId))
+                .body("File uploaded and data saved successfully");
+    }
+
+    @Operation(
+            summary = "Upload CSV file asynchronously",
+            description = "Accepts a CSV file, spools it and saves the data in the background. Returns the upload job to poll for progress.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "File accepted and upload job submitted"),
+            @ApiResponse(responseCode = "400", description = "Invalid delimiter",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "400", description = "Failed to upload file",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "409", description = "File has already been uploaded",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent uploads, retry after the Retry-After header",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    @PostMapping(value = "/records/upload/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UploadJobDTO> uploadCsvAsync(@Parameter(name = "CSV file to upload", required = true)
+                                                       @RequestPart("file") MultipartFile file,
+                                                       @Parameter(name = "delimiter", example = ",")
+                                                       @RequestParam("delimiter") char delimiter,
+                                                       HttpServletRequest request) {
+        log.info("Attempting to submit upload job from MultipartFile");
+        UploadJobDTO job = recordFacade.submitCsvUpload(file, delimiter, admissionClients.resolveClient(request));
+        log.info("Submitted upload job {}", job.getJobId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/records/upload/" + job.getJobId()))
+                .body(job);
+    }
+
+    @Operation(
+            summary = "Upload CSV request body",
+            description = "Streams a raw CSV request body straight into the database without the multipart size limit. "
+                    + "Accepts text/csv (optionally with Content-Encoding: gzip), application/gzip or a application/zip archive of CSV files.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Body uploaded and data saved successfully, Location points to its upload batch"),
+            @ApiResponse(responseCode = "400", description = "Invalid delimiter",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "400", description = "Failed to upload file",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "409", description = "File has already been uploaded",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "413", description = "Body exceeds the configured stream upload limit",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent uploads, retry after the Retry-After header",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    @PostMapping(value = "/records/upload/stream",
+            consumes = {"text/csv", "application/gzip", "application/x-gzip", "application/zip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<String> uploadCsvStream(@Parameter(name = "delimiter", example = ",")
+                                                  @RequestParam("delimiter") char delimiter,
+                                                  @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                  @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                  InputStream body,
+                                                  HttpServletRequest request) {
+        log.info("Attempting to save data from request body");
+        long batchId = recordFacade.saveCsvStream(body, UploadEncoding.from(contentType, contentEncoding), delimiter,
+                admissionClients.resolveClient(request));
+        csvUploadMetrics.incrementCsvUpload();
+        log.info("Successfully saved records to the database in batch {}.", batchId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/records/batches/" + batchId))
+                .body("File uploaded and data saved successfully");
+    }
+
+    @Operation(
+            summary = "Upload CSV file in resumable chunks",
+            description = "Saves the CSV file in committed chunks, collecting malformed rows into an error report instead of aborting. "
+                    + "Re-sending the same file resumes after the last committed chunk.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "File saved, returns the upload report"),
+            @ApiResponse(responseCode = "400", description = "Invalid delimiter",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "400", description = "Failed to upload file",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "409", description = "File has already been uploaded or is being uploaded",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent uploads, retry after the Retry-After header",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    @PostMapping(value = "/records/upload/resumable", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UploadReportDTO> uploadCsvResumable(@Parameter(name = "CSV file to upload", required = true)
+                                                              @RequestPart("file") MultipartFile file,
+                                                              @Parameter(name = "delimiter", example = ",")
+                                                              @RequestParam("delimiter") char delimiter,
+                                                              HttpServletRequest request) {
+        log.info("Attempting to save data from MultipartFile in resumable chunks");
+        UploadReportDTO report = recordFacade.saveCsvResumable(file, delimiter, admissionClients.resolveClient(request));
         csvUploadMetrics.incrementCsvUpload();
-        log.info("Successfully saved records to the database.");
-        return ResponseEntity.status(HttpStatus.CREATED).body("File uploaded and data saved successfully");
+        log.info("Resumable upload {} finished with {} rejected rows", report.sha256(), report.rowsRejected());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/records/upload/resumable/" + report.sha256()))
+                .body(report);
+    }
+
+    @GetMapping("/records/upload/resumable/{sha256}")
+    @Operation(
+            summary = "Get resumable upload report",
+            description = "Returns the checkpoint and the rejected rows of a resumable upload, identified by the SHA-256 of the file."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Upload report found"),
+            @ApiResponse(responseCode = "404", description = "Upload checkpoint not found",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    public ResponseEntity<UploadReportDTO> getUploadReport(@Parameter(name = "SHA-256 of the uploaded file") @PathVariable String sha256) {
+        return new ResponseEntity<>(recordFacade.getUploadReport(sha256), HttpStatus.OK);
+    }
+
+    @GetMapping("/records/upload/{jobId}")
+    @Operation(
+            summary = "Get upload job status",
+            description = "Returns state, processed rows, throughput and errors of an asynchronous upload job."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Upload job found"),
+            @ApiResponse(responseCode = "404", description = "Upload job not found",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    public ResponseEntity<UploadJobDTO> getUploadJob(@Parameter(name = "Upload job id") @PathVariable UUID jobId) {
+        return new ResponseEntity<>(recordFacade.getUploadJob(jobId), HttpStatus.OK);
+    }
+
+    @GetMapping("/records/batches/{batchId}")
+    @Operation(
+            summary = "Get upload batch",
+            description = "Returns the state and row count of the upload batch that tagged the records of one upload."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Upload batch found"),
+            @ApiResponse(responseCode = "404", description = "Upload batch not found",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    public ResponseEntity<UploadBatchDTO> getUploadBatch(@Parameter(name = "Upload batch id") @PathVariable long batchId) {
+        return new ResponseEntity<>(recordFacade.getUploadBatch(batchId), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/records/batches/{batchId}")
+    @Operation(
+            summary = "Roll back an upload batch",
+            description = "Deletes every record of the upload batch in short chunked transactions and forgets the file fingerprint, "
+                    + "so the file can be uploaded again. Repeating the call finishes an interrupted rollback."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Upload batch deleted"),
+            @ApiResponse(responseCode = "404", description = "Upload batch not found",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    public ResponseEntity<UploadBatchDeletionDTO> deleteUploadBatch(@Parameter(name = "Upload batch id") @PathVariable long batchId) {
+        log.info("Attempting to delete upload batch {}", batchId);
+        UploadBatchDeletionDTO deletion = recordFacade.deleteUploadBatch(batchId);
+        log.info("Deleted {} records of upload batch {}", deletion.rowsDeleted(), batchId);
+        return new ResponseEntity<>(deletion, HttpStatus.OK);
     }
 
     @GetMapping("/records/search")
@@ -67,17 +254,108 @@ public class RecordController {
             @Parameter(name = "Age to search") @RequestParam(required = false) Integer age,
             @Parameter(name = "Position to search") @RequestParam(required = false, defaultValue = "") String position,
             @Parameter(name = "Department to search") @RequestParam(required = false, defaultValue = "") String department,
+            @Parameter(name = "Upload batch to search") @RequestParam(required = false) Long batchId,
             @Parameter(name = "Page number (1-based)") @RequestParam(defaultValue = "1")
             @Min(value = 1, message = "page should be greater or equals one") int pageNum,
             @Parameter(name = "Page size (1-based)") @RequestParam(defaultValue = "1")
             @Min(value = 1, message = "page size should be greater or equals one") int pageSize) {
-        log.info("Entering getAllRecordsByCriteria with parameters - fullName: {}, age: {}, position: {}, department: {}, pageNum: {}, pageSize: {}",
-                fullName, age, position, department, pageNum, pageSize);
-        Page<RecordDTO> records = recordFacade.getAllRecordsByCriteria(fullName, age, position, department, pageNum, pageSize);
+        log.info("Entering getAllRecordsByCriteria with parameters - fullName: {}, age: {}, position: {}, department: {}, batchId: {}, pageNum: {}, pageSize: {}",
+                fullName, age, position, department, batchId, pageNum, pageSize);
+        Page<RecordDTO> records = recordFacade.getAllRecordsByCriteria(fullName, age, position, department, batchId, pageNum, pageSize);
         log.info("Found {} records matching criteria and in this page is {} records", records.getTotalElements(), records.getContent().size());
         return new ResponseEntity<>(records, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/records/search/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Search records by a batch of criteria",
+            description = "Runs every criteria query of the batch and returns the pages keyed by query id. Queries that differ only by department are read with one grouped query."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pages keyed by query id"),
+            @ApiResponse(responseCode = "400", description = "Empty or too large batch, missing or duplicate query id, or invalid paging",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    public ResponseEntity<Map<String, Page<RecordDTO>>> searchBatch(@RequestBody List<BatchSearchQueryDTO> queries) {
+        log.info("Entering searchBatch with {} queries", queries.size());
+        Map<String, Page<RecordDTO>> records = recordFacade.searchBatch(queries);
+        return new ResponseEntity<>(records, HttpStatus.OK);
+    }
+
+    @GetMapping("/records/search/cursor")
+    @Operation(
+            summary = "Search records by criteria with cursor pagination",
+            description = "Retrieves records after the given cursor ordered by id, without counting all matches. Pass the returned nextCursor as 'after' to get the next page."
+    )
+    public ResponseEntity<CursorPageDTO<RecordDTO>> getRecordsByCriteriaAfter(
+            @Parameter(name = "Full name to search") @RequestParam(required = false, defaultValue = "") String fullName,
+            @Parameter(name = "Age to search") @RequestParam(required = false) Integer age,
+            @Parameter(name = "Position to search") @RequestParam(required = false, defaultValue = "") String position,
+            @Parameter(name = "Department to search") @RequestParam(required = false, defaultValue = "") String department,
+            @Parameter(name = "Upload batch to search") @RequestParam(required = false) Long batchId,
+            @Parameter(name = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(name = "Page size (1-based)") @RequestParam(defaultValue = "1")
+            @Min(value = 1, message = "page size should be greater or equals one") int pageSize) {
+        log.info("Entering getRecordsByCriteriaAfter with parameters - fullName: {}, age: {}, position: {}, department: {}, batchId: {}, after: {}, pageSize: {}",
+                fullName, age, position, department, batchId, after, pageSize);
+        CursorPageDTO<RecordDTO> records = recordFacade.getRecordsByCriteriaAfter(
+                new RecordCriteriaDTO(fullName, age, position, department, batchId), after, pageSize);
+        log.info("Found {} records in this page, next cursor: {}", records.size(), records.nextCursor());
+        return new ResponseEntity<>(records, HttpStatus.OK);
+    }
+
+    @GetMapping("/records/facets")
+    @Operation(
+            summary = "Get facet counts by criteria",
+            description = "Returns the number of matching records in total and per position, department and age bucket."
+    )
+    public ResponseEntity<RecordFacetsDTO> getFacets(
+            @Parameter(name = "Full name to search") @RequestParam(required = false, defaultValue = "") String fullName,
+            @Parameter(name = "Age to search") @RequestParam(required = false) Integer age,
+            @Parameter(name = "Position to search") @RequestParam(required = false, defaultValue = "") String position,
+            @Parameter(name = "Department to search") @RequestParam(required = false, defaultValue = "") String department,
+            @Parameter(name = "Upload batch to search") @RequestParam(required = false) Long batchId) {
+        log.info("Entering getFacets with parameters - fullName: {}, age: {}, position: {}, department: {}, batchId: {}",
+                fullName, age, position, department, batchId);
+        RecordFacetsDTO facets = recordFacade.getFacets(new RecordCriteriaDTO(fullName, age, position, department, batchId));
+        log.info("Found {} records matching criteria", facets.total());
+        return new ResponseEntity<>(facets, HttpStatus.OK);
+    }
+
+    @GetMapping("/records/export")
+    @Operation(
+            summary = "Export records by criteria",
+            description = "Streams every record matching the criteria as CSV (with one of the upload delimiters) or NDJSON, ordered by id."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Records streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid delimiter",
+                    content = @Content(schema = @Schema(implementation = CustomError.class))),
+            @ApiResponse(responseCode = "429", description = "Too many concurrent exports, retry after the Retry-After header",
+                    content = @Content(schema = @Schema(implementation = CustomError.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> exportRecords(
+            @Parameter(name = "Full name to search") @RequestParam(required = false, defaultValue = "") String fullName,
+            @Parameter(name = "Age to search") @RequestParam(required = false) Integer age,
+            @Parameter(name = "Position to search") @RequestParam(required = false, defaultValue = "") String position,
+            @Parameter(name = "Department to search") @RequestParam(required = false, defaultValue = "") String department,
+            @Parameter(name = "Upload batch to search") @RequestParam(required = false) Long batchId,
+            @Parameter(name = "Export format") @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @Parameter(name = "delimiter", example = ",") @RequestParam(defaultValue = ",") char delimiter,
+            HttpServletRequest request) {
+        log.info("Entering exportRecords with parameters - fullName: {}, age: {}, position: {}, department: {}, batchId: {}, format: {}, delimiter: {}",
+                fullName, age, position, department, batchId, format, delimiter);
+        if (format == ExportFormat.CSV) {
+            CsvDelimiters.validate(delimiter);
+        }
+        RecordCriteriaDTO criteria = new RecordCriteriaDTO(fullName, age, position, department, batchId);
+        StreamingResponseBody body = recordFacade.exportRecords(criteria, format, delimiter, admissionClients.resolveClient(request));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"records." + format.getFileExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/records/text")
     @Operation(
             summary = "Search records by text",
@@ -96,4 +374,19 @@ public class RecordController {
         return new ResponseEntity<>(records, HttpStatus.OK);
     }
 
+    @GetMapping("/records/text/cursor")
+    @Operation(
+            summary = "Search records by text with cursor pagination",
+            description = "Retrieves records matching the text after the given cursor ordered by id, without counting all matches."
+    )
+    public ResponseEntity<CursorPageDTO<RecordDTO>> getRecordsByTextAfter(
+            @Parameter(name = "Text to search for in records") @RequestParam(defaultValue = "") String text,
+            @Parameter(name = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(name = "Page size (1-based)") @RequestParam(defaultValue = "1")
+            @Min(value = 1, message = "page size should be greater or equals one") int pageSize) {
+        log.info("Entering getRecordsByTextAfter with parameters - text: {}, after: {}, pageSize: {}", text, after, pageSize);
+        CursorPageDTO<RecordDTO> records = recordFacade.getRecordsByTextAfter(text, after, pageSize);
+        log.info("Found {} records in this page, next cursor: {}", records.size(), records.nextCursor());
+        return new ResponseEntity<>(records, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,124 @@
+package com.hacken.datasource;
+
+import com.hacken.event.RecordsDeletedEvent;
+import com.hacken.event.RecordsPersistedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands out connections for read-only transactions, round-robin over the replica pools. A replica that fails to
+ * give a connection is skipped for {@code retryInterval}; when no replica is available the primary serves the read.
+ * <p>
+ * For {@code primaryReadWindow} after this instance commits record changes, reads go to the primary as well. The
+ * in-memory indexes and the search cache are updated on commit, so a lagging replica would otherwise refill the cache
+ * with stale pages or miss rows the text index already returns as candidates.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements DisposableBean {
+
+    private final List<HikariDataSource> replicas;
+
+    private final DataSource primary;
+
+    private final long retryIntervalNanos;
+
+    private final long primaryReadWindowNanos;
+
+    private volatile long primaryReadsUntil;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final AtomicLongArray downUntil;
+
+    private final List<Counter> replicaRoutes;
+
+    private final Counter fallbackRoute;
+
+    private final Counter afterWriteRoute;
+
+    public ReplicaDataSource(List<HikariDataSource> replicas, DataSource primary, Duration retryInterval,
+                             Duration primaryReadWindow, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.primary = primary;
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.primaryReadWindowNanos = primaryReadWindow.toNanos();
+        this.downUntil = new AtomicLongArray(replicas.size());
+        this.replicaRoutes = replicas.stream()
+                .map(replica -> routeCounter(meterRegistry, replica.getPoolName()))
+                .toList();
+        this.fallbackRoute = routeCounter(meterRegistry, "primary-fallback");
+        this.afterWriteRoute = routeCounter(meterRegistry, "primary-after-write");
+    }
+
+    /**
+     * Runs before the indexes and the search cache apply the change, so no read they trigger goes to a replica.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener({RecordsPersistedEvent.class, RecordsDeletedEvent.class})
+    public void onRecordsChanged() {
+        if (primaryReadWindowNanos > 0) {
+            primaryReadsUntil = System.nanoTime() + primaryReadWindowNanos;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long primaryUntil = primaryReadsUntil;
+        if (primaryUntil != 0 && primaryUntil - System.nanoTime() > 0) {
+            afterWriteRoute.increment();
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            long until = downUntil.get(index);
+            if (until != 0 && until - System.nanoTime() > 0) {
+                continue;
+            }
+            HikariDataSource replica = replicas.get(index);
+            try {
+                Connection connection = replica.getConnection();
+                downUntil.set(index, 0);
+                replicaRoutes.get(index).increment();
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, skipping it for the retry interval", replica.getPoolName(), e);
+                downUntil.set(index, System.nanoTime() + retryIntervalNanos);
+            }
+        }
+        fallbackRoute.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("records.datasource.reads")
+                .description("Read-only transactions by the pool that served them")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
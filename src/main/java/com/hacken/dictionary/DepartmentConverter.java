@@ -0,0 +1,24 @@
+package com.hacken.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@Converter
+@RequiredArgsConstructor
+public class DepartmentConverter implements AttributeConverter<String, Integer> {
+
+    private final RecordDictionaries recordDictionaries;
+
+    @Override
+    public Integer convertToDatabaseColumn(String department) {
+        return department == null ? null : recordDictionaries.departments().intern(department);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer departmentId) {
+        return departmentId == null ? null : recordDictionaries.departments().getValue(departmentId);
+    }
+}
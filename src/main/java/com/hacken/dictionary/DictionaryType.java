@@ -0,0 +1,13 @@
+package com.hacken.dictionary;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum DictionaryType {
+    POSITION("position_dictionary"),
+    DEPARTMENT("department_dictionary");
+
+    private final String tableName;
+}
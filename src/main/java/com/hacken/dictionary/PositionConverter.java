@@ -0,0 +1,24 @@
+package com.hacken.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@Converter
+@RequiredArgsConstructor
+public class PositionConverter implements AttributeConverter<String, Integer> {
+
+    private final RecordDictionaries recordDictionaries;
+
+    @Override
+    public Integer convertToDatabaseColumn(String position) {
+        return position == null ? null : recordDictionaries.positions().intern(position);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer positionId) {
+        return positionId == null ? null : recordDictionaries.positions().getValue(positionId);
+    }
+}
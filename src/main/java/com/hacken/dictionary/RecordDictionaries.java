@@ -0,0 +1,50 @@
+package com.hacken.dictionary;
+
+import com.hacken.model.Record;
+import com.hacken.repository.DictionaryJdbcRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+@Component
+public class RecordDictionaries {
+
+    private final ValueDictionary positions;
+
+    private final ValueDictionary departments;
+
+    /**
+     * The transaction manager depends on the entity manager factory, which needs the dictionary converters,
+     * so it is only resolved when a new value has to be inserted.
+     */
+    public RecordDictionaries(DictionaryJdbcRepository repository, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        Supplier<TransactionTemplate> requiresNewTransaction = () -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager.getObject());
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            return transactionTemplate;
+        };
+        this.positions = new ValueDictionary(DictionaryType.POSITION, repository, requiresNewTransaction);
+        this.departments = new ValueDictionary(DictionaryType.DEPARTMENT, repository, requiresNewTransaction);
+    }
+
+    public ValueDictionary positions() {
+        return positions;
+    }
+
+    public ValueDictionary departments() {
+        return departments;
+    }
+
+    /**
+     * Replaces the parsed position and department of the record with their shared dictionary instances,
+     * registering values that are not in the dictionary yet.
+     */
+    public void canonicalize(Record record) {
+        record.setPosition(positions.canonical(record.getPosition()));
+        record.setDepartment(departments.canonical(record.getDepartment()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.hacken.dictionary;
+
+import com.hacken.repository.DictionaryJdbcRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory, two-way mapping between the distinct values of one column and their dictionary ids.
+ * The whole table is loaded on first use; new values are inserted in their own transaction so an id
+ * handed out to a rolled-back upload still exists. The table is read in its own transaction too, so a reload never
+ * runs on a caller's connection that may be busy streaming rows. Values are also indexed by their normalized form,
+ * so case- and accent-insensitive lookups do not fold the whole dictionary on every search.
+ */
+public class ValueDictionary {
+
+    private final DictionaryType type;
+
+    private final DictionaryJdbcRepository repository;
+
+    private final Supplier<TransactionTemplate> requiresNewTransaction;
+
+    private final Map<String, Integer> idsByValue = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> valuesById = new ConcurrentHashMap<>();
+
+    private final Map<String, List<Integer>> idsByNormalizedValue = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    ValueDictionary(DictionaryType type, DictionaryJdbcRepository repository, Supplier<TransactionTemplate> requiresNewTransaction) {
+        this.type = type;
+        this.repository = repository;
+        this.requiresNewTransaction = requiresNewTransaction;
+    }
+
+    /**
+     * Returns the id of {@code value}, inserting it when it is new. The insert is idempotent on the unique
+     * {@code name_hash}, so concurrent callers, here or on another instance, agree on one id without holding a lock
+     * while they wait for a connection.
+     */
+    public int intern(String value) {
+        ensureLoaded();
+        Integer id = idsByValue.get(value);
+        if (id != null) {
+            return id;
+        }
+        id = requiresNewTransaction.get().execute(status -> repository.insertIfAbsent(type, value));
+        register(id, value);
+        return idsByValue.get(value);
+    }
+
+    /**
+     * Returns the canonical instance of {@code value}, so every record holding it shares one string.
+     */
+    public String canonical(String value) {
+        return valuesById.get(intern(value));
+    }
+
+    public String getValue(int id) {
+        ensureLoaded();
+        String value = valuesById.get(id);
+        if (value == null) {
+            reload();
+            value = valuesById.get(id);
+        }
+        return value;
+    }
+
+    public List<String> findValuesEqualTo(String value) {
+        return findIdsEqualTo(value).stream()
+                .map(valuesById::get)
+                .toList();
+    }
+
+    public List<Integer> findIdsEqualTo(String value) {
+        ensureLoaded();
+        return idsByNormalizedValue.getOrDefault(ValueNormalizer.normalize(value), List.of());
+    }
+
+    public List<String> findValuesContaining(String text) {
+        ensureLoaded();
+        String normalizedText = ValueNormalizer.normalize(text);
+        return idsByNormalizedValue.entrySet().stream()
+                .filter(entry -> entry.getKey().contains(normalizedText))
+                .flatMap(entry -> entry.getValue().stream())
+                .map(valuesById::get)
+                .toList();
+    }
+
+    public int size() {
+        return valuesById.size();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        requiresNewTransaction.get().executeWithoutResult(status -> repository.findAll(type, this::register));
+        loaded = true;
+    }
+
+    private void register(int id, String value) {
+        if (valuesById.putIfAbsent(id, value) != null) {
+            return;
+        }
+        idsByValue.merge(value, id, Math::min);
+        idsByNormalizedValue.merge(ValueNormalizer.normalize(value), List.of(id),
+                (ids, newIds) -> Stream.concat(ids.stream(), newIds.stream()).sorted().toList());
+    }
+}
@@ -0,0 +1,68 @@
+package com.hacken.dictionary;
+
+import lombok.experimental.UtilityClass;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Folds case and accents the way the default MySQL collation ({@code utf8mb4_0900_ai_ci}) compares strings:
+ * compatibility forms and ligatures are decomposed, marks are dropped, and the letters the collation sorts as
+ * another letter or letter pair ({@code ß}, {@code æ}, {@code ø}, ...) are expanded to them.
+ */
+@UtilityClass
+public class ValueNormalizer {
+
+    public String normalize(String value) {
+        if (isAsciiLowerCase(value)) {
+            return value;
+        }
+        if (isAscii(value)) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFKD).toLowerCase(Locale.ROOT);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            switch (Character.getType(c)) {
+                case Character.NON_SPACING_MARK, Character.COMBINING_SPACING_MARK, Character.ENCLOSING_MARK -> {
+                }
+                default -> folded.append(fold(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    private String fold(char c) {
+        return switch (c) {
+            case 'ß' -> "ss";
+            case 'æ' -> "ae";
+            case 'œ' -> "oe";
+            case 'ø' -> "o";
+            case 'đ' -> "d";
+            case 'ħ' -> "h";
+            case 'ł' -> "l";
+            case 'ŧ' -> "t";
+            default -> String.valueOf(c);
+        };
+    }
+
+    private boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAsciiLowerCase(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 0x7f || (c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hacken.dto;
+
+public record BatchSearchQueryDTO(
+        String id,
+        String fullName,
+        Integer age,
+        String position,
+        String department,
+        Long batchId,
+        Integer pageNum,
+        Integer pageSize
+) {
+
+    public BatchSearchQueryDTO {
+        pageNum = pageNum == null ? 1 : pageNum;
+        pageSize = pageSize == null ? 1 : pageSize;
+    }
+
+    public RecordCriteriaDTO toCriteria() {
+        return new RecordCriteriaDTO(fullName, age, position, department, batchId);
+    }
+}
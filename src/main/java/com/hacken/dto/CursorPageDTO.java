@@ -0,0 +1,13 @@
+package com.hacken.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPageDTO<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {
+}
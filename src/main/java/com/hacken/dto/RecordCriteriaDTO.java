@@ -0,0 +1,24 @@
+package com.hacken.dto;
+
+public record RecordCriteriaDTO(
+        String fullName,
+        Integer age,
+        String position,
+        String department,
+        Long batchId
+) {
+
+    public RecordCriteriaDTO {
+        fullName = emptyToNull(fullName);
+        position = emptyToNull(position);
+        department = emptyToNull(department);
+    }
+
+    public RecordCriteriaDTO(String fullName, Integer age, String position, String department) {
+        this(fullName, age, position, department, null);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,11 @@
+package com.hacken.dto;
+
+import java.util.Map;
+
+public record RecordFacetsDTO(
+        long total,
+        Map<String, Long> positions,
+        Map<String, Long> departments,
+        Map<String, Long> ageBuckets
+) {
+}
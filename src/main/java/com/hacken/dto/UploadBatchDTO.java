@@ -0,0 +1,14 @@
+package com.hacken.dto;
+
+import com.hacken.model.UploadBatchState;
+
+import java.time.Instant;
+
+public record UploadBatchDTO(
+        long batchId,
+        UploadBatchState state,
+        long rowCount,
+        String sha256,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,8 @@
+package com.hacken.dto;
+
+public record UploadBatchDeletionDTO(
+        long batchId,
+        long rowsDeleted,
+        int chunks
+) {
+}
@@ -0,0 +1,29 @@
+package com.hacken.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hacken.model.UploadJobState;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@Accessors(chain = true)
+@EqualsAndHashCode
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadJobDTO {
+    private UUID jobId;
+    private UploadJobState state;
+    private Long rowsProcessed;
+    private Double rowsPerSecond;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Long batchId;
+    private List<String> errors;
+}
@@ -0,0 +1,19 @@
+package com.hacken.dto;
+
+import com.hacken.model.UploadCheckpointState;
+
+import java.time.Instant;
+import java.util.List;
+
+public record UploadReportDTO(
+        String sha256,
+        Long batchId,
+        UploadCheckpointState state,
+        long resumedFromRow,
+        long rowsProcessed,
+        long rowsSaved,
+        long rowsRejected,
+        Instant updatedAt,
+        List<UploadRowErrorDTO> errors
+) {
+}
@@ -0,0 +1,8 @@
+package com.hacken.dto;
+
+public record UploadRowErrorDTO(
+        long recordNumber,
+        String message,
+        String rawRow
+) {
+}
@@ -0,0 +1,24 @@
+package com.hacken.event;
+
+import com.hacken.dictionary.ValueNormalizer;
+
+/**
+ * Inserted records of one upload batch with the same age, position and department whose normalized full names fall
+ * into the same of {@link #FULL_NAME_HASH_BUCKETS} hash buckets. Buckets keep the number of cells per upload bounded
+ * while still telling the search cache which full-name filters an upload cannot match.
+ */
+public record RecordCell(
+        long batchId,
+        int age,
+        String position,
+        String department,
+        int fullNameHash
+) {
+
+    public static final int FULL_NAME_HASH_BUCKETS = 64;
+
+    public static int fullNameHash(String fullName) {
+        int hash = ValueNormalizer.normalize(fullName).hashCode();
+        return (hash ^ (hash >>> 16)) & (FULL_NAME_HASH_BUCKETS - 1);
+    }
+}
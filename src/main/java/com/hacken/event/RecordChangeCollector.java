@@ -0,0 +1,144 @@
+package com.hacken.event;
+
+import com.hacken.model.Record;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Collects the record changes of the current transaction and publishes them once after it commits. Inserts are
+ * kept as an id range per batch plus a count per cell, so a transaction that inserts millions of rows holds a few
+ * numbers instead of its rows until commit. Deletes keep their records; a rollback deletes one bounded chunk per
+ * transaction. Outside a transaction the changes are published right away.
+ * <p>
+ * A transaction with collected changes holds the shared side of a commit gate from {@code beforeCommit} until it
+ * completes, so {@link #runExclusively(Runnable)} can tell apart the changes published before it from those
+ * published after it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecordChangeCollector {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    public void persisted(long batchId, List<Record> records) {
+        if (!records.isEmpty()) {
+            collect(changes -> changes.persisted(batchId, records));
+        }
+    }
+
+    public void deleted(List<Record> records) {
+        if (!records.isEmpty()) {
+            collect(changes -> changes.deleted.addAll(records));
+        }
+    }
+
+    /**
+     * Runs the action while no transaction with collected changes is committing. Every change committed before the
+     * action has been published, and every change committed after it is published after it. A repeatable-read
+     * snapshot taken inside the action therefore holds exactly the changes published so far.
+     */
+    public void runExclusively(Runnable action) {
+        commitGate.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    private void collect(Consumer<TransactionChanges> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionChanges changes = new TransactionChanges();
+            change.accept(changes);
+            changes.publish();
+            return;
+        }
+        change.accept(currentChanges());
+    }
+
+    private TransactionChanges currentChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof TransactionChanges changes) {
+                return changes;
+            }
+        }
+        TransactionChanges changes = new TransactionChanges();
+        TransactionSynchronizationManager.registerSynchronization(changes);
+        return changes;
+    }
+
+    private class TransactionChanges implements TransactionSynchronization {
+
+        private final Map<Long, LongSummaryStatistics> idsByBatch = new HashMap<>();
+
+        private final Map<RecordCell, Long> cells = new HashMap<>();
+
+        private final List<Record> deleted = new ArrayList<>();
+
+        private boolean gateHeld;
+
+        private void persisted(long batchId, List<Record> records) {
+            LongSummaryStatistics ids = idsByBatch.computeIfAbsent(batchId, key -> new LongSummaryStatistics());
+            for (Record record : records) {
+                ids.accept(record.getId());
+                cells.merge(new RecordCell(batchId, record.getAge(), record.getPosition(), record.getDepartment(),
+                        RecordCell.fullNameHash(record.getFullName())), 1L, Long::sum);
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitGate.readLock().lock();
+            gateHeld = true;
+        }
+
+        @Override
+        public void afterCommit() {
+            publish();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (gateHeld) {
+                gateHeld = false;
+                commitGate.readLock().unlock();
+            }
+        }
+
+        /**
+         * The transaction has already committed, so a failing listener is logged instead of failing the caller.
+         */
+        private void publish() {
+            try {
+                if (!idsByBatch.isEmpty()) {
+                    List<RecordIdRange> ranges = idsByBatch.entrySet().stream()
+                            .map(entry -> new RecordIdRange(entry.getKey(), entry.getValue().getMin(), entry.getValue().getMax(),
+                                    entry.getValue().getCount()))
+                            .toList();
+                    eventPublisher.publishEvent(new RecordsPersistedEvent(ranges, Map.copyOf(cells)));
+                }
+                if (!deleted.isEmpty()) {
+                    eventPublisher.publishEvent(new RecordsDeletedEvent(List.copyOf(deleted)));
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to apply committed record changes", e);
+            }
+        }
+    }
+}
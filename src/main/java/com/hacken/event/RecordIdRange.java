@@ -0,0 +1,13 @@
+package com.hacken.event;
+
+/**
+ * The ids of the records one transaction inserted into an upload batch: every row of the batch with an id
+ * between {@code fromId} and {@code toId}, both inclusive.
+ */
+public record RecordIdRange(
+        long batchId,
+        long fromId,
+        long toId,
+        long count
+) {
+}
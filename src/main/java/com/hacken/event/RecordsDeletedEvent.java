@@ -0,0 +1,10 @@
+package com.hacken.event;
+
+import com.hacken.model.Record;
+
+import java.util.List;
+
+public record RecordsDeletedEvent(
+        List<Record> records
+) {
+}
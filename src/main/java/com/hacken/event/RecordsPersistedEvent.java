@@ -0,0 +1,15 @@
+package com.hacken.event;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published once per committed transaction that inserted records. It carries the inserted id range of each batch
+ * and the number of inserted rows per cell instead of the rows themselves; listeners that need the full names read
+ * the ranges back.
+ */
+public record RecordsPersistedEvent(
+        List<RecordIdRange> ranges,
+        Map<RecordCell, Long> cells
+) {
+}
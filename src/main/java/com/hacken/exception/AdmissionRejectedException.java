@@ -0,0 +1,19 @@
+package com.hacken.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when admission control turns an operation away; answered with {@code 429} and a {@code Retry-After}.
+ */
+@Getter
+public abstract class AdmissionRejectedException extends TypeException {
+
+    private final Duration retryAfter;
+
+    protected AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
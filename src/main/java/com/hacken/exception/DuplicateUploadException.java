@@ -0,0 +1,8 @@
+package com.hacken.exception;
+
+public class DuplicateUploadException extends TypeException {
+
+    public DuplicateUploadException(String message) {
+        super(message);
+    }
+}
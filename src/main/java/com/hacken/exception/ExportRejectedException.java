@@ -0,0 +1,10 @@
+package com.hacken.exception;
+
+import java.time.Duration;
+
+public class ExportRejectedException extends AdmissionRejectedException {
+
+    public ExportRejectedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
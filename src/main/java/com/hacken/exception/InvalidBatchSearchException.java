@@ -0,0 +1,8 @@
+package com.hacken.exception;
+
+public class InvalidBatchSearchException extends TypeException {
+
+    public InvalidBatchSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.hacken.exception;
+
+public class InvalidCursorException extends TypeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
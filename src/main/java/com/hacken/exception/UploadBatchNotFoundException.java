@@ -0,0 +1,8 @@
+package com.hacken.exception;
+
+public class UploadBatchNotFoundException extends TypeException {
+
+    public UploadBatchNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.hacken.exception;
+
+public class UploadCheckpointNotFoundException extends TypeException {
+
+    public UploadCheckpointNotFoundException(String message) {
+        super(message);
+    }
+}
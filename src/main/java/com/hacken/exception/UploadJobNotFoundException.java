@@ -0,0 +1,8 @@
+package com.hacken.exception;
+
+public class UploadJobNotFoundException extends TypeException {
+
+    public UploadJobNotFoundException(String message) {
+        super(message);
+    }
+}
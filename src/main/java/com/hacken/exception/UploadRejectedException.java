@@ -0,0 +1,10 @@
+package com.hacken.exception;
+
+import java.time.Duration;
+
+public class UploadRejectedException extends AdmissionRejectedException {
+
+    public UploadRejectedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
@@ -0,0 +1,8 @@
+package com.hacken.exception;
+
+public class UploadTooLargeException extends TypeException {
+
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
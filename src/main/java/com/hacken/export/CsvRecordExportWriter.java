@@ -0,0 +1,34 @@
+package com.hacken.export;
+
+import com.hacken.dto.RecordDTO;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+public class CsvRecordExportWriter implements RecordExportWriter {
+
+    private final CSVPrinter printer;
+
+    public CsvRecordExportWriter(OutputStream outputStream, char delimiter) throws IOException {
+        CSVFormat csvFormat = CSVFormat.Builder.create()
+                .setDelimiter(delimiter)
+                .setRecordSeparator('\n')
+                .build();
+        this.printer = new CSVPrinter(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)), csvFormat);
+    }
+
+    @Override
+    public void write(RecordDTO record) throws IOException {
+        printer.printRecord(record.getFullName(), record.getAge(), record.getPosition(), record.getDepartment());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        printer.flush();
+    }
+}
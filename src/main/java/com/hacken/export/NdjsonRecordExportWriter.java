@@ -0,0 +1,29 @@
+package com.hacken.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hacken.dto.RecordDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class NdjsonRecordExportWriter implements RecordExportWriter {
+
+    private final JsonGenerator generator;
+
+    public NdjsonRecordExportWriter(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(outputStream);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(RecordDTO record) throws IOException {
+        generator.writeObject(record);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+}
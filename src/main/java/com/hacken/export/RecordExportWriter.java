@@ -0,0 +1,12 @@
+package com.hacken.export;
+
+import com.hacken.dto.RecordDTO;
+
+import java.io.IOException;
+
+public interface RecordExportWriter {
+
+    void write(RecordDTO record) throws IOException;
+
+    void flush() throws IOException;
+}
@@ -1,14 +1,54 @@
 package com.hacken.facade;
 
+import com.hacken.dto.BatchSearchQueryDTO;
+import com.hacken.dto.CursorPageDTO;
+import com.hacken.dto.RecordCriteriaDTO;
 import com.hacken.dto.RecordDTO;
+import com.hacken.dto.RecordFacetsDTO;
+import com.hacken.dto.UploadBatchDTO;
+import com.hacken.dto.UploadBatchDeletionDTO;
+import com.hacken.dto.UploadJobDTO;
+import com.hacken.dto.UploadReportDTO;
+import com.hacken.export.ExportFormat;
+import com.hacken.parser.UploadEncoding;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 public interface RecordFacade {
-    void saveCsvData(MultipartFile file, char delimiter);
+    long saveCsvData(MultipartFile file, char delimiter, String clientId);
+
+    long saveCsvStream(InputStream inputStream, UploadEncoding encoding, char delimiter, String clientId);
+
+    UploadReportDTO saveCsvResumable(MultipartFile file, char delimiter, String clientId);
+
+    UploadReportDTO getUploadReport(String sha256);
+
+    UploadJobDTO submitCsvUpload(MultipartFile file, char delimiter, String clientId);
+
+    UploadJobDTO getUploadJob(UUID jobId);
+
+    UploadBatchDTO getUploadBatch(long batchId);
 
-    Page<RecordDTO> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, int pageNum, int pageSize);
+    UploadBatchDeletionDTO deleteUploadBatch(long batchId);
+
+    Page<RecordDTO> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, Long batchId, int pageNum, int pageSize);
+
+    Map<String, Page<RecordDTO>> searchBatch(List<BatchSearchQueryDTO> queries);
+
+    CursorPageDTO<RecordDTO> getRecordsByCriteriaAfter(RecordCriteriaDTO criteria, String after, int pageSize);
+
+    RecordFacetsDTO getFacets(RecordCriteriaDTO criteria);
+
+    StreamingResponseBody exportRecords(RecordCriteriaDTO criteria, ExportFormat format, char delimiter, String clientId);
 
     Page<RecordDTO> getAllRecordsByText(String text, int pageNum, int pageSize);
 
+    CursorPageDTO<RecordDTO> getRecordsByTextAfter(String text, String after, int pageSize);
+
 }
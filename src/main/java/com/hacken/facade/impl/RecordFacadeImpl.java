@@ -1,14 +1,44 @@
 package com.hacken.facade.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hacken.admission.AdmissionPermit;
+import com.hacken.admission.ExportAdmission;
+import com.hacken.admission.UploadAdmission;
+import com.hacken.dto.BatchSearchQueryDTO;
+import com.hacken.dto.CursorPageDTO;
+import com.hacken.dto.RecordCriteriaDTO;
 import com.hacken.dto.RecordDTO;
+import com.hacken.dto.RecordFacetsDTO;
+import com.hacken.dto.UploadBatchDTO;
+import com.hacken.dto.UploadBatchDeletionDTO;
+import com.hacken.dto.UploadJobDTO;
+import com.hacken.dto.UploadReportDTO;
+import com.hacken.export.CsvRecordExportWriter;
+import com.hacken.export.ExportFormat;
+import com.hacken.export.NdjsonRecordExportWriter;
+import com.hacken.export.RecordExportWriter;
 import com.hacken.facade.RecordFacade;
+import com.hacken.mapper.CursorMapperUtil;
 import com.hacken.mapper.RecordMapperUtil;
+import com.hacken.mapper.UploadBatchMapperUtil;
+import com.hacken.mapper.UploadJobMapperUtil;
 import com.hacken.model.Record;
+import com.hacken.parser.UploadEncoding;
+import com.hacken.service.RecordBatchSearchService;
 import com.hacken.service.RecordService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 
 @Component
@@ -17,20 +47,132 @@ public class RecordFacadeImpl implements RecordFacade {
 
     private final RecordService recordService;
 
+    private final RecordBatchSearchService recordBatchSearchService;
+
+    private final UploadAdmission uploadAdmission;
+
+    private final ExportAdmission exportAdmission;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public long saveCsvData(MultipartFile file, char delimiter, String clientId) {
+        AdmissionPermit permit = uploadAdmission.admit(clientId);
+        try {
+            return recordService.saveCsvData(file, delimiter);
+        } finally {
+            permit.close();
+        }
+    }
+
+    @Override
+    public long saveCsvStream(InputStream inputStream, UploadEncoding encoding, char delimiter, String clientId) {
+        AdmissionPermit permit = uploadAdmission.admit(clientId);
+        try {
+            return recordService.saveCsvStream(inputStream, encoding, delimiter);
+        } finally {
+            permit.close();
+        }
+    }
+
     @Override
-    public void saveCsvData(MultipartFile file, char delimiter) {
-        recordService.saveCsvData(file, delimiter);
+    public UploadReportDTO saveCsvResumable(MultipartFile file, char delimiter, String clientId) {
+        AdmissionPermit permit = uploadAdmission.admit(clientId);
+        try {
+            return recordService.saveCsvResumable(file, delimiter);
+        } finally {
+            permit.close();
+        }
     }
 
     @Override
-    public Page<RecordDTO> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, int pageNum, int pageSize) {
-        Page<Record> recordPage = recordService.getAllRecordsByCriteria(fullName, age, position, department, pageNum, pageSize);
-        return recordPage.map(RecordMapperUtil::toRecordDto);
+    public UploadReportDTO getUploadReport(String sha256) {
+        return recordService.getUploadReport(sha256);
+    }
+
+    @Override
+    public UploadJobDTO submitCsvUpload(MultipartFile file, char delimiter, String clientId) {
+        AdmissionPermit permit = uploadAdmission.admit(clientId);
+        try {
+            return UploadJobMapperUtil.toUploadJobDto(recordService.submitCsvUpload(file, delimiter, permit));
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public UploadJobDTO getUploadJob(UUID jobId) {
+        return UploadJobMapperUtil.toUploadJobDto(recordService.getUploadJob(jobId));
+    }
+
+    @Override
+    public UploadBatchDTO getUploadBatch(long batchId) {
+        return UploadBatchMapperUtil.toUploadBatchDto(recordService.getUploadBatch(batchId));
+    }
+
+    @Override
+    public UploadBatchDeletionDTO deleteUploadBatch(long batchId) {
+        return recordService.deleteUploadBatch(batchId);
+    }
+
+    @Override
+    public Page<RecordDTO> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, Long batchId,
+                                                   int pageNum, int pageSize) {
+        return recordService.getAllRecordsByCriteria(fullName, age, position, department, batchId, pageNum, pageSize);
+    }
+
+    @Override
+    public Map<String, Page<RecordDTO>> searchBatch(List<BatchSearchQueryDTO> queries) {
+        return recordBatchSearchService.search(queries);
+    }
+
+    @Override
+    public CursorPageDTO<RecordDTO> getRecordsByCriteriaAfter(RecordCriteriaDTO criteria, String after, int pageSize) {
+        List<Record> records = recordService.getRecordsByCriteriaAfter(criteria, CursorMapperUtil.decode(after), pageSize + 1);
+        return CursorMapperUtil.toCursorPage(records, pageSize, RecordMapperUtil::toRecordDto);
+    }
+
+    @Override
+    public RecordFacetsDTO getFacets(RecordCriteriaDTO criteria) {
+        return recordService.getFacets(criteria);
+    }
+
+    /**
+     * The export slot is taken inside the body, on the thread that streams it, so a body that never runs never holds one.
+     */
+    @Override
+    public StreamingResponseBody exportRecords(RecordCriteriaDTO criteria, ExportFormat format, char delimiter, String clientId) {
+        return outputStream -> {
+            try (AdmissionPermit permit = exportAdmission.admit(clientId)) {
+                writeExport(criteria, format, delimiter, outputStream);
+            }
+        };
+    }
+
+    private void writeExport(RecordCriteriaDTO criteria, ExportFormat format, char delimiter, OutputStream outputStream) throws IOException {
+        RecordExportWriter writer = switch (format) {
+            case CSV -> new CsvRecordExportWriter(outputStream, delimiter);
+            case NDJSON -> new NdjsonRecordExportWriter(outputStream, objectMapper);
+        };
+        recordService.streamRecordsByCriteria(criteria, record -> {
+            try {
+                writer.write(RecordMapperUtil.toRecordDto(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
     }
 
     @Override
     public Page<RecordDTO> getAllRecordsByText(String text, int pageNum, int pageSize) {
-        Page<Record> recordPage = recordService.getAllRecordsByText(text, pageNum, pageSize);
-        return recordPage.map(RecordMapperUtil::toRecordDto);
+        return recordService.getAllRecordsByText(text, pageNum, pageSize);
+    }
+
+    @Override
+    public CursorPageDTO<RecordDTO> getRecordsByTextAfter(String text, String after, int pageSize) {
+        List<Record> records = recordService.getRecordsByTextAfter(text, CursorMapperUtil.decode(after), pageSize + 1);
+        return CursorMapperUtil.toCursorPage(records, pageSize, RecordMapperUtil::toRecordDto);
     }
 }
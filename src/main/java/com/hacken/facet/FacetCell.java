@@ -0,0 +1,4 @@
+package com.hacken.facet;
+
+public record FacetCell(int positionId, int departmentId, int age) {
+}
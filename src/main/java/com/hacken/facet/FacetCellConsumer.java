@@ -0,0 +1,7 @@
+package com.hacken.facet;
+
+@FunctionalInterface
+public interface FacetCellConsumer {
+
+    void accept(int positionId, int departmentId, int age, long count);
+}
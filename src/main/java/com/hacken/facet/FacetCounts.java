@@ -0,0 +1,64 @@
+package com.hacken.facet;
+
+import com.hacken.dictionary.RecordDictionaries;
+import com.hacken.dto.RecordFacetsDTO;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Rolls (position, department, age) cell counts up into per-dimension facets.
+ * Positions and departments are ordered by count, age buckets by their lower bound.
+ */
+public class FacetCounts implements FacetCellConsumer {
+
+    private final int ageBucketSize;
+
+    private final Map<Integer, Long> positions = new HashMap<>();
+
+    private final Map<Integer, Long> departments = new HashMap<>();
+
+    private final Map<Integer, Long> ageBuckets = new TreeMap<>();
+
+    private long total;
+
+    public FacetCounts(int ageBucketSize) {
+        this.ageBucketSize = ageBucketSize;
+    }
+
+    @Override
+    public void accept(int positionId, int departmentId, int age, long count) {
+        if (count <= 0) {
+            return;
+        }
+        total += count;
+        positions.merge(positionId, count, Long::sum);
+        departments.merge(departmentId, count, Long::sum);
+        ageBuckets.merge(Math.floorDiv(age, ageBucketSize) * ageBucketSize, count, Long::sum);
+    }
+
+    public RecordFacetsDTO toDto(RecordDictionaries recordDictionaries) {
+        Map<String, Long> ageBucketCounts = new LinkedHashMap<>();
+        ageBuckets.forEach((lowerBound, count) -> ageBucketCounts.put(ageBucketLabel(lowerBound), count));
+        return new RecordFacetsDTO(total,
+                byCount(positions, id -> recordDictionaries.positions().getValue(id)),
+                byCount(departments, id -> recordDictionaries.departments().getValue(id)),
+                ageBucketCounts);
+    }
+
+    private String ageBucketLabel(int lowerBound) {
+        return ageBucketSize == 1 ? Integer.toString(lowerBound) : lowerBound + "-" + (lowerBound + ageBucketSize - 1);
+    }
+
+    private static Map<String, Long> byCount(Map<Integer, Long> countsById, IntFunction<String> names) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        countsById.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> result.put(names.apply(entry.getKey()), entry.getValue()));
+        return result;
+    }
+}
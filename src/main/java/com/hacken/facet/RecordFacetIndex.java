@@ -0,0 +1,201 @@
+package com.hacken.facet;
+
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.dictionary.RecordDictionaries;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordFacetsDTO;
+import com.hacken.event.RecordChangeCollector;
+import com.hacken.event.RecordsDeletedEvent;
+import com.hacken.event.RecordsPersistedEvent;
+import com.hacken.model.Record;
+import com.hacken.repository.RecordJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Record counts per (position, department, age) cell, seeded with one {@code GROUP BY} at startup and
+ * incremented after each committed upload. Facets for any combination of position, department and age
+ * are rolled up from the matching cells without touching the database.
+ * <p>
+ * The seed runs in a repeatable-read snapshot of the primary taken while no change is committing, so the changes
+ * published after it are exactly those missing from the snapshot; they are buffered as per-cell deltas and applied
+ * once the seed is counted. A failed seed stops buffering and is retried with exponential backoff.
+ */
+@Slf4j
+@Component
+public class RecordFacetIndex {
+
+    private static final Duration INITIAL_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(5);
+
+    private final Map<FacetCell, LongAdder> counts = new ConcurrentHashMap<>();
+
+    private final Map<FacetCell, Long> pendingDeltas = new HashMap<>();
+
+    private boolean seeding;
+
+    private final RecordJdbcRepository recordJdbcRepository;
+
+    private final RecordDictionaries recordDictionaries;
+
+    private final RecordChangeCollector recordChangeCollector;
+
+    private final TransactionTemplate snapshotTransaction;
+
+    private final RecordSearchProperties.Facets properties;
+
+    private volatile boolean ready;
+
+    public RecordFacetIndex(RecordJdbcRepository recordJdbcRepository, RecordDictionaries recordDictionaries,
+                            RecordChangeCollector recordChangeCollector, PlatformTransactionManager transactionManager,
+                            RecordSearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.recordJdbcRepository = recordJdbcRepository;
+        this.recordDictionaries = recordDictionaries;
+        this.recordChangeCollector = recordChangeCollector;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.properties = searchProperties.getFacets();
+        Gauge.builder("records.facets.cells", counts, Map::size)
+                .description("Distinct (position, department, age) cells held by the facet index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (properties.isEnabled()) {
+            Thread.ofVirtual().name("facet-index-bootstrap").start(this::seed);
+        }
+    }
+
+    @EventListener
+    public void onRecordsPersisted(RecordsPersistedEvent event) {
+        if (properties.isEnabled()) {
+            Map<FacetCell, Long> deltas = new HashMap<>();
+            event.cells().forEach((cell, count) -> deltas.merge(facetCell(cell.position(), cell.department(), cell.age()),
+                    count, Long::sum));
+            apply(deltas);
+        }
+    }
+
+    @EventListener
+    public void onRecordsDeleted(RecordsDeletedEvent event) {
+        if (properties.isEnabled()) {
+            Map<FacetCell, Long> deltas = new HashMap<>();
+            for (Record record : event.records()) {
+                deltas.merge(facetCell(record.getPosition(), record.getDepartment(), record.getAge()), -1L, Long::sum);
+            }
+            apply(deltas);
+        }
+    }
+
+    /**
+     * Returns the facets of the records matching the criteria, or an empty optional when the index
+     * cannot answer (not seeded yet, or a full name or batch filter, which the cells do not carry).
+     */
+    public Optional<RecordFacetsDTO> findFacets(RecordCriteriaDTO criteria) {
+        if (!ready || criteria.fullName() != null || criteria.batchId() != null) {
+            return Optional.empty();
+        }
+        Set<Integer> positionIds = criteria.position() == null ? null
+                : new HashSet<>(recordDictionaries.positions().findIdsEqualTo(criteria.position()));
+        Set<Integer> departmentIds = criteria.department() == null ? null
+                : new HashSet<>(recordDictionaries.departments().findIdsEqualTo(criteria.department()));
+        FacetCounts facetCounts = new FacetCounts(properties.getAgeBucketSize());
+        counts.forEach((cell, count) -> {
+            if ((positionIds == null || positionIds.contains(cell.positionId()))
+                    && (departmentIds == null || departmentIds.contains(cell.departmentId()))
+                    && (criteria.age() == null || criteria.age() == cell.age())) {
+                facetCounts.accept(cell.positionId(), cell.departmentId(), cell.age(), count.sum());
+            }
+        });
+        return Optional.of(facetCounts.toDto(recordDictionaries));
+    }
+
+    private void seed() {
+        Duration backoff = INITIAL_RETRY_BACKOFF;
+        while (true) {
+            try {
+                snapshotTransaction.executeWithoutResult(status -> seedInSnapshot());
+                log.info("Seeded facet index with {} cells", counts.size());
+                return;
+            } catch (RuntimeException e) {
+                synchronized (pendingDeltas) {
+                    seeding = false;
+                    pendingDeltas.clear();
+                }
+                log.error("Failed to seed facet index, facets are counted in the database; retrying in {}", backoff, e);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Duration doubled = backoff.multipliedBy(2);
+            backoff = doubled.compareTo(MAX_RETRY_BACKOFF) < 0 ? doubled : MAX_RETRY_BACKOFF;
+        }
+    }
+
+    /**
+     * Pins the snapshot with its first read while no change is committing, counts the cells in it and then applies
+     * the deltas published since. The connection is taken before the gate, since committing transactions wait at
+     * the gate with theirs.
+     */
+    private void seedInSnapshot() {
+        recordJdbcRepository.acquireConnection();
+        long[] maxId = new long[1];
+        recordChangeCollector.runExclusively(() -> {
+            synchronized (pendingDeltas) {
+                seeding = true;
+                pendingDeltas.clear();
+            }
+            counts.clear();
+            maxId[0] = recordJdbcRepository.findMaxId();
+        });
+        recordJdbcRepository.countByFacetCell(new RecordCriteriaDTO(null, null, null, null), maxId[0],
+                (positionId, departmentId, age, count) -> increment(new FacetCell(positionId, departmentId, age), count));
+        synchronized (pendingDeltas) {
+            pendingDeltas.forEach(this::increment);
+            pendingDeltas.clear();
+            seeding = false;
+            ready = true;
+        }
+    }
+
+    private void apply(Map<FacetCell, Long> deltas) {
+        synchronized (pendingDeltas) {
+            if (!ready) {
+                if (seeding) {
+                    deltas.forEach((cell, delta) -> pendingDeltas.merge(cell, delta, Long::sum));
+                }
+                return;
+            }
+        }
+        deltas.forEach(this::increment);
+    }
+
+    private FacetCell facetCell(String position, String department, int age) {
+        return new FacetCell(recordDictionaries.positions().intern(position), recordDictionaries.departments().intern(department), age);
+    }
+
+    private void increment(FacetCell cell, long delta) {
+        counts.computeIfAbsent(cell, key -> new LongAdder()).add(delta);
+    }
+}
@@ -0,0 +1,46 @@
+package com.hacken.idempotency;
+
+import com.hacken.model.Record;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@UtilityClass
+public class ContentHashes {
+
+    private static final byte FIELD_SEPARATOR = 0x1f;
+
+    public MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public String toHex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public byte[] valueHash(String value) {
+        return sha256().digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hashes the exact values of the four record fields, separated so that shifted values cannot collide.
+     */
+    public byte[] rowHash(MessageDigest digest, Record record) {
+        digest.reset();
+        digest.update(record.getFullName().getBytes(StandardCharsets.UTF_8));
+        digest.update(FIELD_SEPARATOR);
+        digest.update(Integer.toString(record.getAge()).getBytes(StandardCharsets.UTF_8));
+        digest.update(FIELD_SEPARATOR);
+        digest.update(record.getPosition().getBytes(StandardCharsets.UTF_8));
+        digest.update(FIELD_SEPARATOR);
+        digest.update(record.getDepartment().getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+}
@@ -0,0 +1,56 @@
+package com.hacken.idempotency;
+
+import com.hacken.config.RecordUploadProperties;
+import com.hacken.exception.DuplicateUploadException;
+import com.hacken.repository.UploadFingerprintRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+/**
+ * File-level idempotency: uploads are fingerprinted with SHA-256 while they stream, and the fingerprint is stored
+ * in the same transaction as the rows, so a file is either fully ingested and fingerprinted or neither.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadFingerprints {
+
+    private final RecordUploadProperties uploadProperties;
+
+    private final UploadFingerprintRepository fingerprintRepository;
+
+    public boolean isEnabled() {
+        return uploadProperties.getIdempotency().isEnabled();
+    }
+
+    public DigestInputStream digesting(InputStream inputStream) {
+        return new DigestInputStream(inputStream, ContentHashes.sha256());
+    }
+
+    public String fingerprint(DigestInputStream inputStream) {
+        return ContentHashes.toHex(inputStream.getMessageDigest());
+    }
+
+    public void checkNotUploaded(String fingerprint) {
+        if (fingerprintRepository.exists(fingerprint)) {
+            log.info("Skipping upload {}: file has already been ingested", fingerprint);
+            throw new DuplicateUploadException("File has already been uploaded");
+        }
+    }
+
+    public void claim(String fingerprint, long rowCount) {
+        if (!fingerprintRepository.insert(fingerprint, rowCount)) {
+            log.info("Rolling back upload {}: file has already been ingested", fingerprint);
+            throw new DuplicateUploadException("File has already been uploaded");
+        }
+    }
+
+    public void forget(String fingerprint) {
+        fingerprintRepository.delete(fingerprint);
+    }
+}
@@ -0,0 +1,539 @@
+package com.hacken.index;
+
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.dictionary.RecordDictionaries;
+import com.hacken.dictionary.ValueNormalizer;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.event.RecordChangeCollector;
+import com.hacken.event.RecordIdRange;
+import com.hacken.event.RecordsDeletedEvent;
+import com.hacken.event.RecordsPersistedEvent;
+import com.hacken.model.Record;
+import com.hacken.repository.RecordJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Columnar in-memory copy of the record table for criteria search. Rows are stored in primitive arrays
+ * (ids, ages, dictionary codes) and every distinct age, position, department and normalized full name has a
+ * Roaring bitmap of the rows holding it. A criteria query is a bitmap intersection followed by an in-memory
+ * page build, so it runs on the request thread under a shared read lock without a database connection.
+ * <p>
+ * Rows are kept in id order, so bitmap order is page order and a row is found by binary search. Ranges that commit
+ * out of order are merged into the tail. The snapshot loads from a repeatable-read snapshot of the primary taken
+ * while no change is committing; changes published during the load are buffered and applied afterwards, and a
+ * failed load is retried with exponential backoff. Committed changes are applied off the request thread through an
+ * {@link IndexUpdateQueue}; while one is pending, criteria search runs on the database.
+ */
+@Slf4j
+@Component
+public class ColumnarRecordSnapshot implements DisposableBean {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Duration INITIAL_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(5);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Object> pendingEvents = new ArrayList<>();
+
+    private final IndexUpdateQueue updates = new IndexUpdateQueue("columnar-snapshot-updates");
+
+    private boolean loading;
+
+    private final RecordJdbcRepository recordJdbcRepository;
+
+    private final RecordDictionaries recordDictionaries;
+
+    private final RecordChangeCollector recordChangeCollector;
+
+    private final TransactionTemplate requiresNewTransaction;
+
+    private final TransactionTemplate snapshotTransaction;
+
+    private final RecordSearchProperties.Columnar properties;
+
+    private final int fetchSize;
+
+    private final Timer buildTimer;
+
+    private long[] ids;
+
+    private int[] ages;
+
+    private int[] positionIds;
+
+    private int[] departmentIds;
+
+    private int[] fullNameCodes;
+
+    private int size;
+
+    private long maxId;
+
+    private final Map<String, Integer> fullNameCodesByValue = new HashMap<>();
+
+    private final List<String> fullNames = new ArrayList<>();
+
+    private final Map<String, RoaringBitmap> rowsByFullName = new HashMap<>();
+
+    private final Map<Integer, RoaringBitmap> rowsByAge = new HashMap<>();
+
+    private final Map<Integer, RoaringBitmap> rowsByPosition = new HashMap<>();
+
+    private final Map<Integer, RoaringBitmap> rowsByDepartment = new HashMap<>();
+
+    private RoaringBitmap deletedRows;
+
+    private volatile boolean ready;
+
+    public ColumnarRecordSnapshot(RecordJdbcRepository recordJdbcRepository, RecordDictionaries recordDictionaries,
+                                  RecordChangeCollector recordChangeCollector, PlatformTransactionManager transactionManager,
+                                  RecordSearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.recordJdbcRepository = recordJdbcRepository;
+        this.recordDictionaries = recordDictionaries;
+        this.recordChangeCollector = recordChangeCollector;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.properties = searchProperties.getColumnar();
+        this.fetchSize = searchProperties.getExport().getFetchSize();
+        this.buildTimer = Timer.builder("records.columnar.build")
+                .description("Time to load the columnar snapshot from the database")
+                .register(meterRegistry);
+        Gauge.builder("records.columnar.rows", this, ColumnarRecordSnapshot::getRowCount)
+                .description("Rows held by the columnar snapshot")
+                .register(meterRegistry);
+        Gauge.builder("records.columnar.size", this, ColumnarRecordSnapshot::getSizeInBytes)
+                .description("Approximate heap used by the columnar snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        clear();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (properties.isEnabled()) {
+            Thread.ofVirtual().name("columnar-snapshot-bootstrap").start(this::rebuild);
+        }
+    }
+
+    /**
+     * Queues reading the committed id ranges back. Whether the change is applied, buffered or dropped is still
+     * decided here, in commit order. If reading fails the snapshot is reloaded.
+     */
+    @EventListener
+    public void onRecordsPersisted(RecordsPersistedEvent event) {
+        if (!properties.isEnabled() || !applyNow(event)) {
+            return;
+        }
+        updates.submit(() -> {
+            try {
+                appendRanges(event.ranges());
+            } catch (RuntimeException e) {
+                log.error("Failed to read committed records into the columnar snapshot, reloading it", e);
+                ready = false;
+                bootstrap();
+            }
+        });
+    }
+
+    @EventListener
+    public void onRecordsDeleted(RecordsDeletedEvent event) {
+        if (properties.isEnabled() && applyNow(event)) {
+            updates.submit(() -> removeAll(event.records()));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        updates.shutdown();
+    }
+
+    /**
+     * Reloads the snapshot from the database, retrying with backoff until it loads. Searches fall back to the
+     * database until then.
+     */
+    public synchronized void rebuild() {
+        ready = false;
+        Duration backoff = INITIAL_RETRY_BACKOFF;
+        while (true) {
+            try {
+                buildTimer.record(() -> snapshotTransaction.executeWithoutResult(status -> loadInSnapshot()));
+                log.info("Loaded columnar snapshot with {} rows, ~{} bytes", getRowCount(), getSizeInBytes());
+                return;
+            } catch (RuntimeException e) {
+                synchronized (pendingEvents) {
+                    loading = false;
+                    pendingEvents.clear();
+                }
+                log.error("Failed to load columnar snapshot, criteria search stays on the database; retrying in {}", backoff, e);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Duration doubled = backoff.multipliedBy(2);
+            backoff = doubled.compareTo(MAX_RETRY_BACKOFF) < 0 ? doubled : MAX_RETRY_BACKOFF;
+        }
+    }
+
+    /**
+     * Pins the snapshot with its first read while no change is committing, streams it and then applies the changes
+     * published since, in order. The connection is taken before the gate, since committing transactions wait at
+     * the gate with theirs.
+     */
+    private void loadInSnapshot() {
+        recordJdbcRepository.acquireConnection();
+        recordChangeCollector.runExclusively(() -> {
+            synchronized (pendingEvents) {
+                loading = true;
+                pendingEvents.clear();
+            }
+            lock.writeLock().lock();
+            try {
+                clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            recordJdbcRepository.findMaxId();
+        });
+        appendStreamed(consumer -> recordJdbcRepository.streamByCriteria(new RecordCriteriaDTO(null, null, null, null),
+                fetchSize, consumer));
+        synchronized (pendingEvents) {
+            for (Object event : pendingEvents) {
+                if (event instanceof RecordsPersistedEvent persisted) {
+                    appendRanges(persisted.ranges());
+                } else if (event instanceof RecordsDeletedEvent deleted) {
+                    removeAll(deleted.records());
+                }
+            }
+            pendingEvents.clear();
+            loading = false;
+            ready = true;
+        }
+    }
+
+    /**
+     * Returns whether the change can be applied right away. While loading it is buffered instead; before a load
+     * starts it is dropped, since the load reads it from the database.
+     */
+    private boolean applyNow(Object event) {
+        synchronized (pendingEvents) {
+            if (ready) {
+                return true;
+            }
+            if (loading) {
+                pendingEvents.add(event);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the page of records matching the criteria ordered by id, or an empty optional when the snapshot
+     * is disabled, not loaded yet or behind committed changes, or the criteria filter by upload batch, which the
+     * snapshot does not carry.
+     */
+    public Optional<Page<RecordDTO>> findPage(RecordCriteriaDTO criteria, Pageable pageable) {
+        if (!ready || !updates.isIdle() || criteria.batchId() != null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap rows = matchingRows(criteria);
+            int total = rows.getCardinality();
+            List<RecordDTO> content = total <= pageable.getOffset() ? List.of() : readPage(rows, pageable);
+            return Optional.of(new PageImpl<>(content, pageable, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return size - deletedRows.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) ids.length * Long.BYTES + 4L * ages.length * Integer.BYTES;
+            for (String fullName : fullNames) {
+                bytes += 40 + 2L * fullName.length();
+            }
+            bytes += bitmapBytes(rowsByFullName) + bitmapBytes(rowsByAge) + bitmapBytes(rowsByPosition) + bitmapBytes(rowsByDepartment)
+                    + deletedRows.getSizeInBytes();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap matchingRows(RecordCriteriaDTO criteria) {
+        List<RoaringBitmap> filters = new ArrayList<>();
+        if (criteria.fullName() != null) {
+            filters.add(rowsByFullName.getOrDefault(ValueNormalizer.normalize(criteria.fullName()), new RoaringBitmap()));
+        }
+        if (criteria.age() != null) {
+            filters.add(rowsByAge.getOrDefault(criteria.age(), new RoaringBitmap()));
+        }
+        if (criteria.position() != null) {
+            filters.add(union(rowsByPosition, recordDictionaries.positions().findIdsEqualTo(criteria.position())));
+        }
+        if (criteria.department() != null) {
+            filters.add(union(rowsByDepartment, recordDictionaries.departments().findIdsEqualTo(criteria.department())));
+        }
+        if (filters.isEmpty()) {
+            RoaringBitmap rows = RoaringBitmap.bitmapOfRange(0, size);
+            rows.andNot(deletedRows);
+            return rows;
+        }
+        filters.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        return filters.size() == 1 ? filters.get(0) : FastAggregation.and(filters.iterator());
+    }
+
+    private List<RecordDTO> readPage(RoaringBitmap rows, Pageable pageable) {
+        List<RecordDTO> content = new ArrayList<>(pageable.getPageSize());
+        PeekableIntIterator iterator = rows.getIntIterator();
+        iterator.advanceIfNeeded(rows.select((int) pageable.getOffset()));
+        while (iterator.hasNext() && content.size() < pageable.getPageSize()) {
+            content.add(toDto(iterator.next()));
+        }
+        return content;
+    }
+
+    private RecordDTO toDto(int row) {
+        return new RecordDTO(fullNames.get(fullNameCodes[row]), ages[row],
+                recordDictionaries.positions().getValue(positionIds[row]),
+                recordDictionaries.departments().getValue(departmentIds[row]));
+    }
+
+    private void appendRanges(List<RecordIdRange> ranges) {
+        requiresNewTransaction.executeWithoutResult(status -> {
+            for (RecordIdRange range : ranges) {
+                appendStreamed(consumer -> recordJdbcRepository.streamByIdRange(range, fetchSize, consumer));
+            }
+        });
+    }
+
+    private void appendStreamed(Consumer<Consumer<Record>> stream) {
+        List<Record> batch = new ArrayList<>(properties.getBootstrapBatchSize());
+        stream.accept(record -> {
+            batch.add(record);
+            if (batch.size() == properties.getBootstrapBatchSize()) {
+                appendAll(batch);
+                batch.clear();
+            }
+        });
+        appendAll(batch);
+    }
+
+    /**
+     * Appends records given in id order. Records at or below the highest id held are merged with the tail: the tail
+     * rows from the first record's id on are taken out of the bitmaps, merged with the records by id and appended
+     * again, dropping deleted rows and ids already held.
+     */
+    private void appendAll(List<Record> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long firstId = records.get(0).getId();
+            if (firstId > maxId) {
+                ensureCapacity(size + records.size());
+                for (Record record : records) {
+                    append(record.getId(), record.getAge(), recordDictionaries.positions().intern(record.getPosition()),
+                            recordDictionaries.departments().intern(record.getDepartment()), fullNameCode(record.getFullName()));
+                }
+                return;
+            }
+            mergeIntoTail(records, lowerBound(firstId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void mergeIntoTail(List<Record> records, int from) {
+        int tailSize = size - from;
+        long[] tailIds = Arrays.copyOfRange(ids, from, size);
+        int[] tailAges = Arrays.copyOfRange(ages, from, size);
+        int[] tailPositionIds = Arrays.copyOfRange(positionIds, from, size);
+        int[] tailDepartmentIds = Arrays.copyOfRange(departmentIds, from, size);
+        int[] tailFullNameCodes = Arrays.copyOfRange(fullNameCodes, from, size);
+        boolean[] tailDeleted = new boolean[tailSize];
+        for (int row = from; row < size; row++) {
+            tailDeleted[row - from] = deletedRows.contains(row);
+            if (!tailDeleted[row - from]) {
+                removeFromBitmaps(row);
+            }
+        }
+        deletedRows.remove(from, (long) size);
+        size = from;
+        maxId = from == 0 ? 0 : ids[from - 1];
+        ensureCapacity(size + tailSize + records.size());
+        int i = 0;
+        int j = 0;
+        while (i < tailSize || j < records.size()) {
+            if (j == records.size() || (i < tailSize && tailIds[i] <= records.get(j).getId())) {
+                if (j < records.size() && tailIds[i] == records.get(j).getId()) {
+                    j++;
+                }
+                if (!tailDeleted[i]) {
+                    append(tailIds[i], tailAges[i], tailPositionIds[i], tailDepartmentIds[i], tailFullNameCodes[i]);
+                }
+                i++;
+            } else {
+                Record record = records.get(j++);
+                append(record.getId(), record.getAge(), recordDictionaries.positions().intern(record.getPosition()),
+                        recordDictionaries.departments().intern(record.getDepartment()), fullNameCode(record.getFullName()));
+            }
+        }
+    }
+
+    private void append(long id, int age, int positionId, int departmentId, int fullNameCode) {
+        int row = size++;
+        maxId = id;
+        ids[row] = id;
+        ages[row] = age;
+        positionIds[row] = positionId;
+        departmentIds[row] = departmentId;
+        fullNameCodes[row] = fullNameCode;
+        rowsByFullName.computeIfAbsent(ValueNormalizer.normalize(fullNames.get(fullNameCode)), key -> new RoaringBitmap()).add(row);
+        rowsByAge.computeIfAbsent(age, key -> new RoaringBitmap()).add(row);
+        rowsByPosition.computeIfAbsent(positionId, key -> new RoaringBitmap()).add(row);
+        rowsByDepartment.computeIfAbsent(departmentId, key -> new RoaringBitmap()).add(row);
+    }
+
+    private int fullNameCode(String fullName) {
+        return fullNameCodesByValue.computeIfAbsent(fullName, value -> {
+            fullNames.add(value);
+            return fullNames.size() - 1;
+        });
+    }
+
+    /**
+     * Marks the rows of the records as deleted and drops them from every value bitmap. Rows are not compacted;
+     * their slots are reclaimed by the next {@link #rebuild()}.
+     */
+    private void removeAll(List<Record> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Record record : records) {
+                int row = Arrays.binarySearch(ids, 0, size, record.getId());
+                if (row >= 0 && deletedRows.checkedAdd(row)) {
+                    removeFromBitmaps(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeFromBitmaps(int row) {
+        removeRow(rowsByFullName.get(ValueNormalizer.normalize(fullNames.get(fullNameCodes[row]))), row);
+        removeRow(rowsByAge.get(ages[row]), row);
+        removeRow(rowsByPosition.get(positionIds[row]), row);
+        removeRow(rowsByDepartment.get(departmentIds[row]), row);
+    }
+
+    /**
+     * Returns the first row whose id is not below {@code id}.
+     */
+    private int lowerBound(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -row - 1;
+    }
+
+    private static void removeRow(RoaringBitmap bitmap, int row) {
+        if (bitmap != null) {
+            bitmap.remove(row);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        ages = Arrays.copyOf(ages, newCapacity);
+        positionIds = Arrays.copyOf(positionIds, newCapacity);
+        departmentIds = Arrays.copyOf(departmentIds, newCapacity);
+        fullNameCodes = Arrays.copyOf(fullNameCodes, newCapacity);
+    }
+
+    private void clear() {
+        ids = new long[INITIAL_CAPACITY];
+        ages = new int[INITIAL_CAPACITY];
+        positionIds = new int[INITIAL_CAPACITY];
+        departmentIds = new int[INITIAL_CAPACITY];
+        fullNameCodes = new int[INITIAL_CAPACITY];
+        size = 0;
+        deletedRows = new RoaringBitmap();
+        maxId = 0;
+        fullNameCodesByValue.clear();
+        fullNames.clear();
+        rowsByFullName.clear();
+        rowsByAge.clear();
+        rowsByPosition.clear();
+        rowsByDepartment.clear();
+    }
+
+    private static RoaringBitmap union(Map<Integer, RoaringBitmap> bitmaps, List<Integer> keys) {
+        return FastAggregation.or(keys.stream()
+                .map(bitmaps::get)
+                .filter(Objects::nonNull)
+                .iterator());
+    }
+
+    private static long bitmapBytes(Map<?, RoaringBitmap> bitmaps) {
+        long bytes = 0;
+        for (RoaringBitmap bitmap : bitmaps.values()) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.hacken.index;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies the updates of one in-memory index on its own virtual thread, one at a time and in submission order, so
+ * the committing request never reads its rows back. Until every submitted update has run the index is behind the
+ * database; {@link #isIdle()} tells readers so, and they fall back to the database meanwhile.
+ */
+class IndexUpdateQueue {
+
+    private final ExecutorService executor;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    IndexUpdateQueue(String threadName) {
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name(threadName).factory());
+    }
+
+    void submit(Runnable update) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    update.run();
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    boolean isIdle() {
+        return pending.get() == 0;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,91 @@
+package com.hacken.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of record ids backed by a primitive array.
+ */
+class LongPostingList {
+
+    private long[] ids = new long[4];
+
+    private int size;
+
+    boolean add(long id) {
+        if (size == 0 || id > ids[size - 1]) {
+            ensureCapacity();
+            ids[size++] = id;
+            return true;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the given sorted ids in one pass and returns how many were present.
+     */
+    int removeAll(long[] sortedIds) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < sortedIds.length && sortedIds[j] < ids[i]) {
+                j++;
+            }
+            if (j < sortedIds.length && sortedIds[j] == ids[i]) {
+                continue;
+            }
+            ids[kept++] = ids[i];
+        }
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return (long) ids.length * Long.BYTES;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Keeps only the ids of {@code candidates} that are present in this list.
+     */
+    long[] retainAll(long[] candidates) {
+        long[] result = new long[Math.min(candidates.length, size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < candidates.length && j < size) {
+            if (candidates[i] == ids[j]) {
+                result[count++] = candidates[i];
+                i++;
+                j++;
+            } else if (candidates[i] < ids[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1));
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.hacken.index;
+
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.dictionary.ValueNormalizer;
+import com.hacken.event.RecordIdRange;
+import com.hacken.event.RecordsDeletedEvent;
+import com.hacken.event.RecordsPersistedEvent;
+import com.hacken.model.Record;
+import com.hacken.repository.RecordJdbcRepository;
+import com.hacken.repository.RecordRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over {@code fullName}, {@code position} and {@code department}.
+ * Each key packs the field number and three chars into one {@code long}; each posting list is a sorted primitive
+ * array of record ids. Values and queries are both folded with {@link ValueNormalizer}, like the case- and
+ * accent-insensitive collation the {@code LIKE} runs under. A text lookup intersects the posting lists of every
+ * trigram of the query per field and unions the fields, which yields a superset of the {@code LIKE '%text%'} matches.
+ * <p>
+ * Committed changes are applied off the request thread through an {@link IndexUpdateQueue}; while one is pending
+ * the index does not answer and text search runs on the database.
+ */
+@Slf4j
+@Component
+public class RecordTrigramIndex implements DisposableBean {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int FIELD_COUNT = 3;
+
+    private final LongObjectHashMap<LongPostingList> postings = new LongObjectHashMap<>();
+
+    private final IndexUpdateQueue updates = new IndexUpdateQueue("trigram-index-updates");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RecordRepository recordRepository;
+
+    private final RecordJdbcRepository recordJdbcRepository;
+
+    private final TransactionTemplate requiresNewTransaction;
+
+    private final RecordSearchProperties.TextIndex properties;
+
+    private final int fetchSize;
+
+    private final Timer buildTimer;
+
+    private long postingCount;
+
+    private volatile boolean ready;
+
+    public RecordTrigramIndex(RecordRepository recordRepository, RecordJdbcRepository recordJdbcRepository,
+                              PlatformTransactionManager transactionManager, RecordSearchProperties searchProperties,
+                              MeterRegistry meterRegistry) {
+        this.recordRepository = recordRepository;
+        this.recordJdbcRepository = recordJdbcRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = searchProperties.getTextIndex();
+        this.fetchSize = searchProperties.getExport().getFetchSize();
+        this.buildTimer = Timer.builder("records.text.index.build")
+                .description("Time to build the trigram index from the database")
+                .register(meterRegistry);
+        Gauge.builder("records.text.index.trigrams", this, RecordTrigramIndex::getTrigramCount)
+                .description("Distinct trigrams in the text index")
+                .register(meterRegistry);
+        Gauge.builder("records.text.index.postings", this, RecordTrigramIndex::getPostingCount)
+                .description("Record ids stored across all posting lists")
+                .register(meterRegistry);
+        Gauge.builder("records.text.index.size", this, RecordTrigramIndex::getSizeInBytes)
+                .description("Approximate heap used by the posting lists")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (properties.isEnabled()) {
+            Thread.ofVirtual().name("trigram-index-bootstrap").start(() -> buildTimer.record(this::build));
+        }
+    }
+
+    /**
+     * Queues reading the committed id ranges back and indexing them. If that fails, text search falls back to full
+     * scans until the index is rebuilt.
+     */
+    @EventListener
+    public void onRecordsPersisted(RecordsPersistedEvent event) {
+        if (properties.isEnabled()) {
+            updates.submit(() -> indexRanges(event.ranges()));
+        }
+    }
+
+    @EventListener
+    public void onRecordsDeleted(RecordsDeletedEvent event) {
+        if (properties.isEnabled()) {
+            updates.submit(() -> removeAll(event.records()));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        updates.shutdown();
+    }
+
+    /**
+     * Returns the sorted ids of records that may contain {@code text}, or an empty optional when the index
+     * cannot answer (not built yet, behind committed changes, query shorter than a trigram, LIKE wildcards in the
+     * query or too many candidates).
+     */
+    public Optional<long[]> findCandidateIds(String text) {
+        if (!ready || !updates.isIdle() || text == null || text.contains("%") || text.contains("_")) {
+            return Optional.empty();
+        }
+        String foldedText = ValueNormalizer.normalize(text);
+        if (foldedText.length() < GRAM_LENGTH) {
+            return Optional.empty();
+        }
+        long[] candidates = new long[0];
+        lock.readLock().lock();
+        try {
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                candidates = union(candidates, intersectField(field, foldedText));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (candidates.length > properties.getMaxCandidates()) {
+            return Optional.empty();
+        }
+        return Optional.of(candidates);
+    }
+
+    public void addAll(List<Record> records) {
+        lock.writeLock().lock();
+        try {
+            for (Record record : records) {
+                String[] values = {record.getFullName(), record.getPosition(), record.getDepartment()};
+                for (int field = 0; field < FIELD_COUNT; field++) {
+                    for (long key : trigramKeys(field, values[field])) {
+                        if (postings.computeIfAbsent(key, k -> new LongPostingList()).add(record.getId())) {
+                            postingCount++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the records from the posting lists. Ids are grouped per trigram first, so every affected posting list
+     * is compacted once per call instead of once per record.
+     */
+    public void removeAll(List<Record> records) {
+        LongObjectHashMap<LongPostingList> idsByKey = new LongObjectHashMap<>();
+        for (Record record : records) {
+            String[] values = {record.getFullName(), record.getPosition(), record.getDepartment()};
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                for (long key : trigramKeys(field, values[field])) {
+                    idsByKey.computeIfAbsent(key, k -> new LongPostingList()).add(record.getId());
+                }
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            idsByKey.forEach((key, ids) -> {
+                LongPostingList postingList = postings.get(key);
+                if (postingList == null) {
+                    return;
+                }
+                postingCount -= postingList.removeAll(ids.toArray());
+                if (postingList.size() == 0) {
+                    postings.remove(key);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getTrigramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getPostingCount() {
+        lock.readLock().lock();
+        try {
+            return postingCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long[] bytes = {postings.tableSizeInBytes()};
+            postings.forEach((key, postingList) -> bytes[0] += postingList.sizeInBytes());
+            return bytes[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexRanges(List<RecordIdRange> ranges) {
+        try {
+            requiresNewTransaction.executeWithoutResult(status -> {
+                for (RecordIdRange range : ranges) {
+                    List<Record> batch = new ArrayList<>(properties.getBootstrapBatchSize());
+                    recordJdbcRepository.streamByIdRange(range, fetchSize, record -> {
+                        batch.add(record);
+                        if (batch.size() == properties.getBootstrapBatchSize()) {
+                            addAll(batch);
+                            batch.clear();
+                        }
+                    });
+                    addAll(batch);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to index committed records, rebuilding the trigram index", e);
+            ready = false;
+            bootstrap();
+        }
+    }
+
+    private synchronized void build() {
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            postingCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            int batchSize = properties.getBootstrapBatchSize();
+            long lastId = 0;
+            long indexedRecords = 0;
+            List<Record> batch;
+            do {
+                long afterId = lastId;
+                batch = recordRepository.findBy((root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), afterId),
+                        query -> query.sortBy(Sort.by("id")).limit(batchSize).all());
+                addAll(batch);
+                indexedRecords += batch.size();
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == batchSize);
+            ready = true;
+            log.info("Built trigram index for {} records: {} trigrams, {} postings, ~{} bytes",
+                    indexedRecords, getTrigramCount(), getPostingCount(), getSizeInBytes());
+        } catch (RuntimeException e) {
+            log.error("Failed to build trigram index, text search falls back to full scans", e);
+        }
+    }
+
+    private long[] intersectField(int field, String foldedText) {
+        long[] keys = trigramKeys(field, foldedText);
+        LongPostingList[] lists = new LongPostingList[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(LongPostingList::size));
+        long[] result = lists[0].toArray();
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = lists[i].retainAll(result);
+        }
+        return result;
+    }
+
+    private static long[] trigramKeys(int field, String value) {
+        if (value == null) {
+            return new long[0];
+        }
+        String foldedValue = ValueNormalizer.normalize(value);
+        if (foldedValue.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] keys = new long[foldedValue.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) field << 48
+                    | (long) foldedValue.charAt(i) << 32
+                    | (long) foldedValue.charAt(i + 1) << 16
+                    | foldedValue.charAt(i + 2);
+        }
+        return Arrays.stream(keys).sorted().distinct().toArray();
+    }
+
+    private static long[] union(long[] left, long[] right) {
+        long[] result = new long[left.length + right.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length || j < right.length) {
+            long next;
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                next = left[i++];
+            } else if (i == left.length || right[j] < left[i]) {
+                next = right[j++];
+            } else {
+                next = left[i++];
+                j++;
+            }
+            result[count++] = next;
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,48 @@
+package com.hacken.mapper;
+
+import com.hacken.dto.CursorPageDTO;
+import com.hacken.exception.InvalidCursorException;
+import com.hacken.model.Record;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@UtilityClass
+public class CursorMapperUtil {
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    public String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Builds a page from records fetched with a limit of {@code pageSize + 1}; the extra record only signals
+     * that another page exists.
+     */
+    public <T> CursorPageDTO<T> toCursorPage(List<Record> records, int pageSize, Function<Record, T> mapper) {
+        boolean hasNext = records.size() > pageSize;
+        List<Record> pageRecords = hasNext ? records.subList(0, pageSize) : records;
+        String nextCursor = hasNext ? encode(pageRecords.get(pageRecords.size() - 1).getId()) : null;
+        return new CursorPageDTO<>(pageRecords.stream().map(mapper).toList(), pageRecords.size(), nextCursor);
+    }
+}
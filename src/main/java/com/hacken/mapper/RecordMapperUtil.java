@@ -3,6 +3,7 @@ package com.hacken.mapper;
 import com.hacken.dto.RecordDTO;
 import com.hacken.model.Record;
 import lombok.experimental.UtilityClass;
+import org.apache.commons.csv.CSVRecord;
 
 @UtilityClass
 public class RecordMapperUtil {
@@ -14,4 +15,8 @@ public class RecordMapperUtil {
                 .setPosition(record.getPosition())
                 .setDepartment(record.getDepartment());
     }
+
+    public Record toRecord(CSVRecord record) {
+        return new Record(null, record.get(0), Integer.parseInt(record.get(1)), record.get(2), record.get(3));
+    }
 }
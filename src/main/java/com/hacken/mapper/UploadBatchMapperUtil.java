@@ -0,0 +1,13 @@
+package com.hacken.mapper;
+
+import com.hacken.dto.UploadBatchDTO;
+import com.hacken.model.UploadBatch;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class UploadBatchMapperUtil {
+
+    public UploadBatchDTO toUploadBatchDto(UploadBatch batch) {
+        return new UploadBatchDTO(batch.getId(), batch.getState(), batch.getRowCount(), batch.getSha256(), batch.getCreatedAt());
+    }
+}
@@ -0,0 +1,24 @@
+package com.hacken.mapper;
+
+import com.hacken.dto.UploadJobDTO;
+import com.hacken.model.UploadJob;
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+
+@UtilityClass
+public class UploadJobMapperUtil {
+
+    public UploadJobDTO toUploadJobDto(UploadJob job) {
+        return new UploadJobDTO()
+                .setJobId(job.getId())
+                .setState(job.getState())
+                .setRowsProcessed(job.getRowsProcessed().get())
+                .setRowsPerSecond(job.getRowsPerSecond())
+                .setSubmittedAt(job.getSubmittedAt())
+                .setStartedAt(job.getStartedAt())
+                .setFinishedAt(job.getFinishedAt())
+                .setBatchId(job.getBatchId())
+                .setErrors(List.copyOf(job.getErrors()));
+    }
+}
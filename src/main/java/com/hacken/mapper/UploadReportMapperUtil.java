@@ -0,0 +1,28 @@
+package com.hacken.mapper;
+
+import com.hacken.dto.UploadReportDTO;
+import com.hacken.dto.UploadRowErrorDTO;
+import com.hacken.model.UploadCheckpoint;
+import com.hacken.model.UploadRowError;
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+
+@UtilityClass
+public class UploadReportMapperUtil {
+
+    public UploadReportDTO toUploadReportDto(UploadCheckpoint checkpoint, long resumedFromRow, List<UploadRowError> errors) {
+        return new UploadReportDTO(
+                checkpoint.getSha256(),
+                checkpoint.getBatchId(),
+                checkpoint.getState(),
+                resumedFromRow,
+                checkpoint.getRowOffset(),
+                checkpoint.getRowsSaved(),
+                checkpoint.getRowsRejected(),
+                checkpoint.getUpdatedAt(),
+                errors.stream()
+                        .map(error -> new UploadRowErrorDTO(error.getRecordNumber(), error.getMessage(), error.getRawRow()))
+                        .toList());
+    }
+}
@@ -0,0 +1,22 @@
+package com.hacken.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "position_dictionary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Position {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "name_hash", length = 32, unique = true)
+    private byte[] nameHash;
+}
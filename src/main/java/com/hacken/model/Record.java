@@ -1,11 +1,17 @@
 package com.hacken.model;
 
-
+import com.hacken.dictionary.DepartmentConverter;
+import com.hacken.dictionary.PositionConverter;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "Record")
+@Table(name = "Record", indexes = {
+        @Index(name = "idx_record_position_id", columnList = "position_id, id"),
+        @Index(name = "idx_record_department_id", columnList = "department_id, id"),
+        @Index(name = "idx_record_age", columnList = "age, id"),
+        @Index(name = "idx_record_batch_id", columnList = "batch_id, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,9 +27,21 @@ public class Record {
     @Column(name = "age", nullable = false)
     private Integer age;
 
-    @Column(name = "position", nullable = false)
+    @Convert(converter = PositionConverter.class)
+    @Column(name = "position_id", nullable = false)
     private String position;
 
-    @Column(name = "department", nullable = false)
+    @Convert(converter = DepartmentConverter.class)
+    @Column(name = "department_id", nullable = false)
     private String department;
+
+    @Column(name = "row_hash", length = 32, unique = true)
+    private byte[] rowHash;
+
+    @Column(name = "batch_id")
+    private Long batchId;
+
+    public Record(Long id, String fullName, Integer age, String position, String department) {
+        this(id, fullName, age, position, department, null, null);
+    }
 }
@@ -0,0 +1,8 @@
+package com.hacken.model;
+
+public enum UploadBatchState {
+    IN_PROGRESS,
+    COMPLETED,
+    INCOMPLETE,
+    DELETING
+}
@@ -0,0 +1,49 @@
+package com.hacken.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "upload_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadCheckpoint {
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 16, nullable = false)
+    private UploadCheckpointState state;
+
+    @Column(name = "char_offset", nullable = false)
+    private long charOffset;
+
+    @Column(name = "row_offset", nullable = false)
+    private long rowOffset;
+
+    @Column(name = "rows_saved", nullable = false)
+    private long rowsSaved;
+
+    @Column(name = "rows_rejected", nullable = false)
+    private long rowsRejected;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "batch_id")
+    private Long batchId;
+
+    public static UploadCheckpoint start(String sha256, long batchId) {
+        return new UploadCheckpoint(sha256, UploadCheckpointState.IN_PROGRESS, 0, 0, 0, 0, Instant.now(), batchId);
+    }
+
+    public UploadCheckpoint advance(long charOffset, long rowOffset, long savedRows, long rejectedRows, boolean completed) {
+        return new UploadCheckpoint(sha256, completed ? UploadCheckpointState.COMPLETED : UploadCheckpointState.IN_PROGRESS,
+                charOffset, rowOffset, rowsSaved + savedRows, rowsRejected + rejectedRows, Instant.now(), batchId);
+    }
+}
@@ -0,0 +1,6 @@
+package com.hacken.model;
+
+public enum UploadCheckpointState {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,24 @@
+package com.hacken.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "upload_fingerprint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadFingerprint {
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private Instant uploadedAt;
+}
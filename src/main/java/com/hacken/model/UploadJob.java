@@ -0,0 +1,64 @@
+package com.hacken.model;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+public class UploadJob {
+
+    private final UUID id = UUID.randomUUID();
+
+    private final Instant submittedAt = Instant.now();
+
+    private final AtomicLong rowsProcessed = new AtomicLong();
+
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    private volatile UploadJobState state = UploadJobState.QUEUED;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile Long batchId;
+
+    public void start() {
+        startedAt = Instant.now();
+        state = UploadJobState.RUNNING;
+    }
+
+    public void addRowsProcessed(long rows) {
+        rowsProcessed.addAndGet(rows);
+    }
+
+    public void complete(long batchId) {
+        this.batchId = batchId;
+        finishedAt = Instant.now();
+        state = UploadJobState.COMPLETED;
+    }
+
+    public void fail(String error) {
+        errors.add(error);
+        finishedAt = Instant.now();
+        state = UploadJobState.FAILED;
+    }
+
+    public boolean isFinished() {
+        return state == UploadJobState.COMPLETED || state == UploadJobState.FAILED;
+    }
+
+    public double getRowsPerSecond() {
+        if (startedAt == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+        return rowsProcessed.get() * 1000.0 / millis;
+    }
+}
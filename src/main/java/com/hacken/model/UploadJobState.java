@@ -0,0 +1,8 @@
+package com.hacken.model;
+
+public enum UploadJobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
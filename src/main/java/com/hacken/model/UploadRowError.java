@@ -0,0 +1,32 @@
+package com.hacken.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "upload_row_error", indexes = @Index(name = "idx_upload_row_error_sha256", columnList = "sha256, record_number"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadRowError {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sha256", length = 64, nullable = false)
+    private String sha256;
+
+    @Column(name = "record_number", nullable = false)
+    private long recordNumber;
+
+    @Column(name = "message", nullable = false)
+    private String message;
+
+    @Column(name = "raw_row", length = 1024)
+    private String rawRow;
+
+    public UploadRowError(String sha256, long recordNumber, String message, String rawRow) {
+        this(null, sha256, recordNumber, message, rawRow);
+    }
+}
@@ -0,0 +1,71 @@
+package com.hacken.parser;
+
+import com.hacken.exception.UploadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read through it and fails with {@link UploadTooLargeException} once {@code maxBytes} is exceeded.
+ * Closing it leaves the wrapped stream open, so a caller can keep reading after a parser closed its reader.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+
+    private final String description;
+
+    private long count;
+
+    public BoundedInputStream(InputStream in, long maxBytes, String description) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.description = description;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            addCount(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            addCount(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        addCount(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void addCount(long bytes) {
+        count += bytes;
+        if (count > maxBytes) {
+            throw new UploadTooLargeException(description + " exceeds the limit of " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.hacken.parser;
+
+import com.hacken.exception.InvalidDelimiterException;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+@UtilityClass
+public class CsvDelimiters {
+
+    private static final List<Character> VALID_DELIMITERS = Arrays.asList(',', ';', '|', ':', '-', '.');
+
+    public void validate(char delimiter) {
+        if (!VALID_DELIMITERS.contains(delimiter)) {
+            log.error("Invalid delimiter: {}", delimiter);
+            throw new InvalidDelimiterException("Invalid delimiter");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.hacken.parser;
+
+import lombok.experimental.UtilityClass;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Continues parsing a CSV file from a checkpoint: the character position of the first row not yet read and the
+ * number of rows before it. Rows read after resuming carry the same character positions and record numbers as in a
+ * parse from the start of the file, so the next checkpoint can be taken from them.
+ */
+@UtilityClass
+public class CsvResume {
+
+    public CSVParser open(Reader reader, CSVFormat csvFormat, long charOffset, long rowOffset) throws IOException {
+        long remaining = charOffset;
+        while (remaining > 0) {
+            long skipped = reader.skip(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Checkpoint offset " + charOffset + " is beyond the end of the file");
+            }
+            remaining -= skipped;
+        }
+        return new CSVParser(reader, csvFormat, charOffset, rowOffset + 1);
+    }
+}
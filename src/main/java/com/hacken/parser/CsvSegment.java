@@ -0,0 +1,7 @@
+package com.hacken.parser;
+
+public record CsvSegment(
+        long start,
+        long length
+) {
+}
@@ -0,0 +1,171 @@
+package com.hacken.parser;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Splits a CSV file into byte ranges of roughly {@code targetSize} bytes that always end on a record boundary.
+ * Whether a newline sits inside an encapsulated field depends on everything before it, so every chunk of
+ * {@code targetSize} bytes is scanned in parallel once per possible starting state of the quote-aware state
+ * machine, recording the state at its end and its first record end. Chaining those results from the start of the
+ * file is then a cheap serial step. {@code \n}, {@code \r\n} and {@code \r} all end a record.
+ */
+@UtilityClass
+public class CsvSegmentSplitter {
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int AFTER_CR = 4;
+    private static final int STATE_COUNT = 5;
+
+    private static final int STATE_MASK = 0x7;
+    private static final int END_BEFORE = 0x8;
+    private static final int END_AFTER = 0x10;
+
+    public List<CsvSegment> split(FileChannel channel, byte delimiter, long targetSize, ForkJoinPool pool) throws IOException {
+        long size = channel.size();
+        List<ForkJoinTask<ChunkScan>> scans = new ArrayList<>();
+        try {
+            for (long chunkStart = 0; chunkStart < size; chunkStart += targetSize) {
+                long start = chunkStart;
+                long end = Math.min(size, chunkStart + targetSize);
+                scans.add(pool.submit(() -> scan(channel, delimiter, start, end)));
+            }
+            List<CsvSegment> segments = new ArrayList<>();
+            int state = FIELD_START;
+            long segmentStart = 0;
+            for (int chunk = 0; chunk < scans.size(); chunk++) {
+                ChunkScan scan = scans.get(chunk).join();
+                long boundary = scan.firstRecordEnd()[state];
+                if (chunk > 0 && boundary > segmentStart) {
+                    segments.add(new CsvSegment(segmentStart, boundary - segmentStart));
+                    segmentStart = boundary;
+                }
+                state = scan.endState()[state];
+            }
+            if (segmentStart < size) {
+                segments.add(new CsvSegment(segmentStart, size - segmentStart));
+            }
+            return segments;
+        } finally {
+            scans.forEach(scan -> scan.cancel(true));
+        }
+    }
+
+    private ChunkScan scan(FileChannel channel, byte delimiter, long start, long end) {
+        int[] states = new int[STATE_COUNT];
+        long[] firstRecordEnd = new long[STATE_COUNT];
+        for (int state = 0; state < STATE_COUNT; state++) {
+            states[state] = state;
+            firstRecordEnd[state] = -1;
+        }
+        int tracked = STATE_COUNT;
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SCAN_BUFFER_SIZE, end - start));
+        long position = start;
+        try {
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer.get(i);
+                    for (int state = 0; state < tracked; state++) {
+                        int step = step(states[state], b, delimiter);
+                        states[state] = step & STATE_MASK;
+                        if ((step & (END_BEFORE | END_AFTER)) != 0) {
+                            long recordEnd = (step & END_BEFORE) != 0 ? position + i : position + i + 1;
+                            recordFirstEnd(firstRecordEnd, tracked == 1 ? -1 : state, recordEnd);
+                        }
+                    }
+                    if (tracked > 1 && converged(states)) {
+                        tracked = 1;
+                    }
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (tracked == 1) {
+            Arrays.fill(states, states[0]);
+        }
+        return new ChunkScan(states, firstRecordEnd);
+    }
+
+    /**
+     * Once every starting state has reached the same state, the rest of the chunk is the same for all of them and
+     * only one needs to be followed.
+     */
+    private boolean converged(int[] states) {
+        for (int state = 1; state < STATE_COUNT; state++) {
+            if (states[state] != states[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records {@code recordEnd} for {@code state}, or for every starting state still without one when {@code state}
+     * is {@code -1} because they have converged.
+     */
+    private void recordFirstEnd(long[] firstRecordEnd, int state, long recordEnd) {
+        for (int start = 0; start < STATE_COUNT; start++) {
+            if ((state < 0 || start == state) && firstRecordEnd[start] < 0) {
+                firstRecordEnd[start] = recordEnd;
+            }
+        }
+    }
+
+    /**
+     * Returns the state after {@code b}, flagged with {@link #END_AFTER} when {@code b} ends a record and with
+     * {@link #END_BEFORE} when the record already ended with the {@code \r} before it.
+     */
+    private int step(int state, byte b, byte delimiter) {
+        int recordEnd = 0;
+        if (state == AFTER_CR) {
+            if (b == '\n') {
+                return FIELD_START | END_AFTER;
+            }
+            recordEnd = END_BEFORE;
+            state = FIELD_START;
+        }
+        if (state == QUOTED) {
+            return b == '"' ? QUOTE_IN_QUOTED : QUOTED;
+        }
+        if (b == '"' && state != UNQUOTED) {
+            return QUOTED | recordEnd;
+        }
+        if (b == delimiter) {
+            return FIELD_START | recordEnd;
+        }
+        if (b == '\n') {
+            return FIELD_START | recordEnd | END_AFTER;
+        }
+        if (b == '\r') {
+            return AFTER_CR | recordEnd;
+        }
+        return UNQUOTED | recordEnd;
+    }
+
+    private record ChunkScan(
+            int[] endState,
+            long[] firstRecordEnd
+    ) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.hacken.parser;
+
+import com.hacken.config.RecordUploadProperties;
+import com.hacken.mapper.RecordMapperUtil;
+import com.hacken.model.Record;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Parses a spooled CSV file on a fork-join pool, one task per record-aligned byte range.
+ * Parsed segments are handed to the consumer on the calling thread in file order, and at most
+ * {@code 2 * parallelism} segments are in flight so memory stays bounded for any file size.
+ */
+@Slf4j
+@Component
+public class ParallelCsvParser {
+
+    private final RecordUploadProperties uploadProperties;
+
+    private final ForkJoinPool parsePool;
+
+    public ParallelCsvParser(RecordUploadProperties uploadProperties) {
+        this.uploadProperties = uploadProperties;
+        this.parsePool = new ForkJoinPool(uploadProperties.getParallelParse().getParallelism());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsePool.shutdownNow();
+    }
+
+    public long parse(Path file, CSVFormat csvFormat, Consumer<List<Record>> segmentConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte delimiter = (byte) csvFormat.getDelimiterString().charAt(0);
+            long segmentSize = uploadProperties.getParallelParse().getSegmentSize().toBytes();
+            List<CsvSegment> segments = CsvSegmentSplitter.split(channel, delimiter, segmentSize, parsePool);
+            log.info("Parsing {} bytes in {} segments on {} threads", channel.size(), segments.size(), parsePool.getParallelism());
+            Iterator<CsvSegment> pending = segments.iterator();
+            Deque<ForkJoinTask<List<Record>>> inFlight = new ArrayDeque<>();
+            int window = parsePool.getParallelism() * 2;
+            long parsedRecords = 0;
+            try {
+                while (pending.hasNext() || !inFlight.isEmpty()) {
+                    while (pending.hasNext() && inFlight.size() < window) {
+                        inFlight.addLast(parsePool.submit(new SegmentParseTask(channel, pending.next(), csvFormat, uploadProperties.getParserEngine())));
+                    }
+                    List<Record> records = inFlight.removeFirst().join();
+                    parsedRecords += records.size();
+                    segmentConsumer.accept(records);
+                }
+            } finally {
+                inFlight.forEach(task -> task.cancel(true));
+            }
+            return parsedRecords;
+        }
+    }
+
+    private static class SegmentParseTask extends RecursiveTask<List<Record>> {
+
+        private final FileChannel channel;
+
+        private final CsvSegment segment;
+
+        private final CSVFormat csvFormat;
+
+        private final RecordUploadProperties.ParserEngine parserEngine;
+
+        SegmentParseTask(FileChannel channel, CsvSegment segment, CSVFormat csvFormat,
+                         RecordUploadProperties.ParserEngine parserEngine) {
+            this.channel = channel;
+            this.segment = segment;
+            this.csvFormat = csvFormat;
+            this.parserEngine = parserEngine;
+        }
+
+        @Override
+        protected List<Record> compute() {
+            try {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, segment.start(), segment.length());
+                List<Record> records = new ArrayList<>();
+                if (parserEngine == RecordUploadProperties.ParserEngine.RECORD_TOKENIZER) {
+                    new RecordTokenizer(buffer, (byte) csvFormat.getDelimiterString().charAt(0)).forEachRemaining(records::add);
+                    return records;
+                }
+                InputStreamReader reader = new InputStreamReader(new ByteBufferInputStream(buffer), StandardCharsets.UTF_8);
+                try (CSVParser csvParser = new CSVParser(reader, csvFormat)) {
+                    for (CSVRecord record : csvParser) {
+                        records.add(RecordMapperUtil.toRecord(record));
+                    }
+                    return records;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.hacken.parser;
+
+import com.hacken.exception.CsvParsingException;
+import com.hacken.model.Record;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Tokenizer for the fixed {@code fullName, age, position, department} layout that reads straight from a
+ * {@link ByteBuffer}. It follows the commons-csv default format for the given delimiter: {@code "} encapsulates
+ * fields, {@code ""} escapes a quote, {@code \n}, {@code \r\n} and {@code \r} end a record and empty lines are
+ * skipped. Fields are copied into one reusable scratch array, {@code age} is parsed from those bytes and
+ * columns after the fourth are ignored, so a row allocates only its three strings and the {@link Record}.
+ * <p>
+ * {@link #open(FileChannel, byte, long)} maps a file in windows: a record that runs past the end of a window is
+ * parsed again from a window that starts at that record, so every record must fit in one window.
+ */
+public class RecordTokenizer implements Iterator<Record> {
+
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private ByteBuffer buffer;
+
+    private final byte delimiter;
+
+    private final FileChannel channel;
+
+    private final long windowSize;
+
+    private long windowOffset;
+
+    private boolean underflow;
+
+    private byte[] scratch = new byte[256];
+
+    private int scratchLength;
+
+    private long recordNumber;
+
+    public RecordTokenizer(ByteBuffer buffer, byte delimiter) {
+        this(buffer, delimiter, null, buffer.limit());
+    }
+
+    private RecordTokenizer(ByteBuffer buffer, byte delimiter, FileChannel channel, long windowSize) {
+        this.buffer = buffer;
+        this.delimiter = delimiter;
+        this.channel = channel;
+        this.windowSize = windowSize;
+    }
+
+    public static RecordTokenizer open(FileChannel channel, byte delimiter, long windowSize) throws IOException {
+        ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(windowSize, channel.size()));
+        return new RecordTokenizer(window, delimiter, channel, windowSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            skipEmptyLines();
+            if (buffer.hasRemaining() || isLastWindow()) {
+                return buffer.hasRemaining();
+            }
+            remap(windowOffset + buffer.position());
+        }
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        recordNumber++;
+        while (true) {
+            int start = buffer.position();
+            underflow = false;
+            try {
+                Record record = readRecord();
+                if (!underflow) {
+                    return record;
+                }
+            } catch (CsvParsingException | NumberFormatException e) {
+                if (!underflow) {
+                    throw e;
+                }
+            }
+            if (start == 0) {
+                throw new CsvParsingException("Record " + recordNumber + " is longer than the " + windowSize + " byte window");
+            }
+            remap(windowOffset + start);
+        }
+    }
+
+    private Record readRecord() {
+        String fullName = null;
+        int age = 0;
+        String position = null;
+        String department = null;
+        int fieldCount = 0;
+        boolean endOfRecord = false;
+        while (!endOfRecord) {
+            endOfRecord = readField();
+            switch (fieldCount++) {
+                case 0 -> fullName = decodeField();
+                case 1 -> age = parseAge();
+                case 2 -> position = decodeField();
+                case 3 -> department = decodeField();
+                default -> {
+                }
+            }
+        }
+        if (fieldCount < 4) {
+            throw new CsvParsingException("Record " + recordNumber + " has " + fieldCount + " fields, expected 4");
+        }
+        return new Record(null, fullName, age, position, department);
+    }
+
+    private void skipEmptyLines() {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get(buffer.position());
+            if (b != LF && b != CR) {
+                return;
+            }
+            buffer.get();
+        }
+    }
+
+    /**
+     * Copies the next field into the scratch array and returns {@code true} when it was the last field of the record.
+     */
+    private boolean readField() {
+        scratchLength = 0;
+        if (more() && buffer.get(buffer.position()) == QUOTE) {
+            buffer.get();
+            return readEncapsulatedField();
+        }
+        while (more()) {
+            byte b = buffer.get();
+            if (b == delimiter) {
+                return false;
+            }
+            if (b == LF) {
+                return true;
+            }
+            if (b == CR) {
+                skipLineFeed();
+                return true;
+            }
+            append(b);
+        }
+        return true;
+    }
+
+    private boolean readEncapsulatedField() {
+        while (true) {
+            if (!more()) {
+                throw new CsvParsingException("Record " + recordNumber + ": EOF reached before encapsulated token finished");
+            }
+            byte b = buffer.get();
+            if (b != QUOTE) {
+                append(b);
+            } else if (more() && buffer.get(buffer.position()) == QUOTE) {
+                buffer.get();
+                append(QUOTE);
+            } else {
+                break;
+            }
+        }
+        while (more()) {
+            byte b = buffer.get();
+            if (b == delimiter) {
+                return false;
+            }
+            if (b == LF) {
+                return true;
+            }
+            if (b == CR) {
+                skipLineFeed();
+                return true;
+            }
+            if (b != ' ' && b != '\t') {
+                throw new CsvParsingException("Record " + recordNumber + ": invalid char between encapsulated token and delimiter");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Like {@link ByteBuffer#hasRemaining()}, but remembers when a record reached the end of a window that is not the
+     * end of the file.
+     */
+    private boolean more() {
+        if (buffer.hasRemaining()) {
+            return true;
+        }
+        underflow = !isLastWindow();
+        return false;
+    }
+
+    private boolean isLastWindow() {
+        try {
+            return channel == null || windowOffset + buffer.limit() >= channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void remap(long offset) {
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, channel.size() - offset));
+            windowOffset = offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void skipLineFeed() {
+        if (more() && buffer.get(buffer.position()) == LF) {
+            buffer.get();
+        }
+    }
+
+    private void append(byte b) {
+        if (scratchLength == scratch.length) {
+            byte[] grown = new byte[scratch.length * 2];
+            System.arraycopy(scratch, 0, grown, 0, scratchLength);
+            scratch = grown;
+        }
+        scratch[scratchLength++] = b;
+    }
+
+    private String decodeField() {
+        return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Same contract as {@link Integer#parseInt(String)} without creating the intermediate string.
+     */
+    private int parseAge() {
+        int index = 0;
+        boolean negative = false;
+        if (scratchLength > 0 && (scratch[0] == '-' || scratch[0] == '+')) {
+            negative = scratch[0] == '-';
+            index = 1;
+        }
+        if (index == scratchLength) {
+            throw ageFormatException();
+        }
+        long value = 0;
+        for (; index < scratchLength; index++) {
+            int digit = scratch[index] - '0';
+            if (digit < 0 || digit > 9) {
+                throw ageFormatException();
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw ageFormatException();
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw ageFormatException();
+        }
+        return (int) value;
+    }
+
+    private NumberFormatException ageFormatException() {
+        return new NumberFormatException("For input string: \"" + decodeField() + "\"");
+    }
+}
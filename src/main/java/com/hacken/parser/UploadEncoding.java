@@ -0,0 +1,23 @@
+package com.hacken.parser;
+
+import java.util.Locale;
+
+public enum UploadEncoding {
+    PLAIN,
+    GZIP,
+    ZIP;
+
+    public static UploadEncoding from(String contentType, String contentEncoding) {
+        if (contentEncoding != null && contentEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            return GZIP;
+        }
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("application/zip") || type.startsWith("application/x-zip-compressed")) {
+            return ZIP;
+        }
+        if (type.startsWith("application/gzip") || type.startsWith("application/x-gzip")) {
+            return GZIP;
+        }
+        return PLAIN;
+    }
+}
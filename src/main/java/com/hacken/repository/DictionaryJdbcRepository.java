@@ -0,0 +1,37 @@
+package com.hacken.repository;
+
+import com.hacken.dictionary.DictionaryType;
+import com.hacken.idempotency.ContentHashes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class DictionaryJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void findAll(DictionaryType type, BiConsumer<Integer, String> consumer) {
+        jdbcTemplate.query("SELECT id, name FROM " + type.getTableName() + " ORDER BY id",
+                rs -> {
+                    consumer.accept(rs.getInt(1), rs.getString(2));
+                });
+    }
+
+    /**
+     * Inserts {@code name} unless a row with the same {@code name_hash} exists and returns the id of the row holding it.
+     * Only the unique key conflict is absorbed, so a value too long for the column still fails. The hash is of the exact value, so values differing only in case or accents stay separate entries.
+     */
+    public int insertIfAbsent(DictionaryType type, String name) {
+        byte[] nameHash = ContentHashes.valueHash(name);
+        jdbcTemplate.update("INSERT INTO " + type.getTableName() + " (name, name_hash) VALUES (?, ?)"
+                + " ON DUPLICATE KEY UPDATE name_hash = name_hash", name, nameHash);
+        Integer id = jdbcTemplate.queryForObject("SELECT id FROM " + type.getTableName() + " WHERE name_hash = ?",
+                Integer.class, nameHash);
+        return Objects.requireNonNull(id);
+    }
+}
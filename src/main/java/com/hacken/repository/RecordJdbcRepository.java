@@ -0,0 +1,308 @@
+package com.hacken.repository;
+
+import com.hacken.dictionary.RecordDictionaries;
+import com.hacken.dictionary.ValueDictionary;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.event.RecordIdRange;
+import com.hacken.facet.FacetCellConsumer;
+import com.hacken.idempotency.ContentHashes;
+import com.hacken.model.Record;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class RecordJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO record (full_name, age, position_id, department_id, batch_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_DEDUP_SQL =
+            "INSERT INTO record (full_name, age, position_id, department_id, row_hash, batch_id) VALUES (?, ?, ?, ?, ?, ?)"
+                    + " ON DUPLICATE KEY UPDATE row_hash = row_hash";
+
+    private static final String SELECT_SQL =
+            "SELECT id, full_name, age, position_id, department_id, batch_id FROM record";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RecordDictionaries recordDictionaries;
+
+    /**
+     * Inserts the records as one JDBC batch and assigns the generated ids back to them.
+     * With {@code rewriteBatchedStatements=true} the MySQL driver sends the batch as multi-row INSERTs.
+     */
+    public int batchInsert(List<Record> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.execute(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS), (PreparedStatement ps) -> {
+            for (Record record : records) {
+                ps.setString(1, record.getFullName());
+                ps.setInt(2, record.getAge());
+                ps.setInt(3, recordDictionaries.positions().intern(record.getPosition()));
+                ps.setInt(4, recordDictionaries.departments().intern(record.getDepartment()));
+                ps.setObject(5, record.getBatchId(), Types.BIGINT);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                int index = 0;
+                while (keys.next() && index < records.size()) {
+                    records.get(index++).setId(keys.getLong(1));
+                }
+            }
+            return records.size();
+        });
+    }
+
+    /**
+     * Inserts the records together with their row hash and lets the unique index on {@code row_hash} absorb rows
+     * that already exist; any other constraint violation still fails the statement. The records must share one
+     * upload batch, whose chunks are inserted one after another, so the rows of that batch above its highest id
+     * before the insert are exactly the rows this call inserted. Returns only the inserted records.
+     */
+    public List<Record> batchInsertIgnoringDuplicates(List<Record> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        long batchId = records.get(0).getBatchId();
+        MessageDigest digest = ContentHashes.sha256();
+        for (Record record : records) {
+            record.setRowHash(ContentHashes.rowHash(digest, record));
+        }
+        long maxIdBefore = findMaxIdByBatchId(batchId);
+        jdbcTemplate.batchUpdate(INSERT_DEDUP_SQL, records, records.size(), (ps, record) -> {
+            ps.setString(1, record.getFullName());
+            ps.setInt(2, record.getAge());
+            ps.setInt(3, recordDictionaries.positions().intern(record.getPosition()));
+            ps.setInt(4, recordDictionaries.departments().intern(record.getDepartment()));
+            ps.setBytes(5, record.getRowHash());
+            ps.setLong(6, batchId);
+        });
+
+        Map<ByteBuffer, Long> insertedIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, row_hash FROM record WHERE batch_id = ? AND id > ? ORDER BY batch_id, id",
+                (ResultSet rs) -> {
+                    insertedIds.put(ByteBuffer.wrap(rs.getBytes(2)), rs.getLong(1));
+                }, batchId, maxIdBefore);
+
+        List<Record> inserted = new ArrayList<>(insertedIds.size());
+        for (Record record : records) {
+            Long id = insertedIds.remove(ByteBuffer.wrap(record.getRowHash()));
+            if (id != null) {
+                record.setId(id);
+                inserted.add(record);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Streams every record matching the criteria in id order through a forward-only, read-only cursor.
+     * Rows are mapped one at a time and never enter a persistence context, so heap use does not grow with the result.
+     */
+    public void streamByCriteria(RecordCriteriaDTO criteria, int fetchSize, Consumer<Record> consumer) {
+        List<Object> params = new ArrayList<>();
+        String sql = SELECT_SQL + buildWhereClause(criteria, params) + " ORDER BY id";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = prepareStreamingQuery(con, sql, fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, (ResultSet rs) -> {
+            consumer.accept(mapRecord(rs));
+        });
+    }
+
+    /**
+     * Streams the records of the upload batch with ids in the range in id order, from the {@code (batch_id, id)} index.
+     */
+    public void streamByIdRange(RecordIdRange range, int fetchSize, Consumer<Record> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = prepareStreamingQuery(con, SELECT_SQL + " WHERE batch_id = ? AND id BETWEEN ? AND ? ORDER BY batch_id, id", fetchSize);
+            ps.setLong(1, range.batchId());
+            ps.setLong(2, range.fromId());
+            ps.setLong(3, range.toId());
+            return ps;
+        }, (ResultSet rs) -> {
+            consumer.accept(mapRecord(rs));
+        });
+    }
+
+    /**
+     * Reads the first {@code limit} records of the upload batch in id order from the {@code (batch_id, id)} index.
+     */
+    public List<Record> findFirstByBatchId(long batchId, int limit) {
+        return jdbcTemplate.query(SELECT_SQL + " WHERE batch_id = ? ORDER BY batch_id, id LIMIT ?",
+                (rs, rowNum) -> mapRecord(rs), batchId, limit);
+    }
+
+    /**
+     * Deletes the records by primary key as one JDBC batch and returns those this call actually deleted,
+     * so rows removed concurrently by someone else are not reported twice.
+     */
+    public List<Record> deleteByIds(List<Record> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        int[][] counts = jdbcTemplate.batchUpdate("DELETE FROM record WHERE id = ?", records, records.size(),
+                (ps, record) -> ps.setLong(1, record.getId()));
+        List<Record> deleted = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            if (counts[0][i] != 0) {
+                deleted.add(records.get(i));
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Runs a statement that reads no table, so the current transaction takes its physical connection without
+     * starting its read snapshot yet.
+     */
+    public void acquireConnection() {
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+    }
+
+    private long findMaxIdByBatchId(long batchId) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM record WHERE batch_id = ?", Long.class, batchId);
+        return maxId == null ? 0 : maxId;
+    }
+
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM record", Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    /**
+     * Counts the records matching the criteria per (position, department, age) cell,
+     * optionally only up to {@code maxId}.
+     */
+    public void countByFacetCell(RecordCriteriaDTO criteria, Long maxId, FacetCellConsumer consumer) {
+        List<Object> params = new ArrayList<>();
+        String whereClause = buildWhereClause(criteria, params);
+        if (maxId != null) {
+            whereClause += (whereClause.isEmpty() ? " WHERE " : " AND ") + "id <= ?";
+            params.add(maxId);
+        }
+        jdbcTemplate.query("SELECT position_id, department_id, age, COUNT(*) FROM record" + whereClause
+                        + " GROUP BY position_id, department_id, age",
+                (ResultSet rs) -> {
+                    consumer.accept(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getLong(4));
+                }, params.toArray());
+    }
+
+    /**
+     * Reads the first {@code limit} records in id order for each of the department ids in one statement,
+     * ranking the rows per department with a window function. Rows are grouped by department id.
+     */
+    public Map<Integer, List<Record>> findFirstByDepartment(RecordCriteriaDTO criteria, Collection<Integer> departmentIds,
+                                                            int limit) {
+        List<Object> params = new ArrayList<>();
+        String whereClause = buildDepartmentWhereClause(criteria, departmentIds, params);
+        params.add(limit);
+        Map<Integer, List<Record>> recordsByDepartment = new HashMap<>();
+        jdbcTemplate.query("SELECT id, full_name, age, position_id, department_id, batch_id FROM ("
+                        + "SELECT id, full_name, age, position_id, department_id, batch_id, "
+                        + "ROW_NUMBER() OVER (PARTITION BY department_id ORDER BY id) AS rn FROM record" + whereClause
+                        + ") ranked WHERE rn <= ? ORDER BY department_id, id",
+                (ResultSet rs) -> {
+                    recordsByDepartment.computeIfAbsent(rs.getInt("department_id"), id -> new ArrayList<>()).add(mapRecord(rs));
+                }, params.toArray());
+        return recordsByDepartment;
+    }
+
+    public Map<Integer, Long> countByDepartment(RecordCriteriaDTO criteria, Collection<Integer> departmentIds) {
+        List<Object> params = new ArrayList<>();
+        String whereClause = buildDepartmentWhereClause(criteria, departmentIds, params);
+        Map<Integer, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT department_id, COUNT(*) FROM record" + whereClause + " GROUP BY department_id",
+                (ResultSet rs) -> {
+                    counts.put(rs.getInt(1), rs.getLong(2));
+                }, params.toArray());
+        return counts;
+    }
+
+    private String buildDepartmentWhereClause(RecordCriteriaDTO criteria, Collection<Integer> departmentIds,
+                                              List<Object> params) {
+        String whereClause = buildWhereClause(new RecordCriteriaDTO(criteria.fullName(), criteria.age(), criteria.position(), null,
+                criteria.batchId()), params);
+        params.addAll(departmentIds);
+        return whereClause + (whereClause.isEmpty() ? " WHERE " : " AND ")
+                + "department_id IN (" + String.join(", ", Collections.nCopies(departmentIds.size(), "?")) + ")";
+    }
+
+    private String buildWhereClause(RecordCriteriaDTO criteria, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.fullName() != null) {
+            conditions.add("full_name = ?");
+            params.add(criteria.fullName());
+        }
+        if (criteria.age() != null) {
+            conditions.add("age = ?");
+            params.add(criteria.age());
+        }
+        addDictionaryCondition(conditions, params, "position_id", criteria.position(), recordDictionaries.positions());
+        addDictionaryCondition(conditions, params, "department_id", criteria.department(), recordDictionaries.departments());
+        if (criteria.batchId() != null) {
+            conditions.add("batch_id = ?");
+            params.add(criteria.batchId());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private void addDictionaryCondition(List<String> conditions, List<Object> params, String column, String value,
+                                        ValueDictionary dictionary) {
+        if (value == null) {
+            return;
+        }
+        List<Integer> ids = dictionary.findIdsEqualTo(value);
+        if (ids.isEmpty()) {
+            conditions.add("1 = 0");
+            return;
+        }
+        conditions.add(column + " IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")");
+        params.addAll(ids);
+    }
+
+    /**
+     * Prepares a forward-only, read-only query whose rows are streamed rather than buffered by the driver. MySQL
+     * Connector/J streams a statement row by row only when its fetch size is {@link Integer#MIN_VALUE}, and the
+     * connection cannot run other statements until the result is closed; other drivers fetch {@code fetchSize} rows
+     * per round trip.
+     */
+    private PreparedStatement prepareStreamingQuery(Connection con, String sql, int fetchSize) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize("MySQL".equals(con.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize);
+        return ps;
+    }
+
+    private Record mapRecord(ResultSet rs) throws SQLException {
+        Record record = new Record(rs.getLong("id"),
+                rs.getString("full_name"),
+                rs.getInt("age"),
+                recordDictionaries.positions().getValue(rs.getInt("position_id")),
+                recordDictionaries.departments().getValue(rs.getInt("department_id")));
+        record.setBatchId(rs.getObject("batch_id", Long.class));
+        return record;
+    }
+}
@@ -0,0 +1,13 @@
+package com.hacken.repository;
+
+import com.hacken.actuator.QueryShape;
+import com.hacken.dto.RecordDTO;
+import com.hacken.model.Record;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface RecordProjectionRepository {
+
+    Page<RecordDTO> findAllAsDto(Specification<Record> specification, Pageable pageable, String queryName, QueryShape shape);
+}
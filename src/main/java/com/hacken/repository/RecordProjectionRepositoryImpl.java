@@ -0,0 +1,71 @@
+package com.hacken.repository;
+
+import com.hacken.actuator.DatabaseQueryMetrics;
+import com.hacken.actuator.QueryShape;
+import com.hacken.dto.RecordDTO;
+import com.hacken.model.Record;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Read path that selects the DTO columns directly through a constructor expression, so search pages are built
+ * without managed entities, persistence-context snapshots or a second mapping pass.
+ */
+@RequiredArgsConstructor
+public class RecordProjectionRepositoryImpl implements RecordProjectionRepository {
+
+    private final DatabaseQueryMetrics queryMetrics;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<RecordDTO> findAllAsDto(Specification<Record> specification, Pageable pageable, String queryName, QueryShape shape) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecordDTO> query = criteriaBuilder.createQuery(RecordDTO.class);
+        Root<Record> root = query.from(Record.class);
+        query.select(criteriaBuilder.construct(RecordDTO.class,
+                root.get("fullName"), root.get("age"), root.get("position"), root.get("department")));
+        applySpecification(specification, root, query, criteriaBuilder);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        TypedQuery<RecordDTO> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<RecordDTO> content = queryMetrics.time(queryName + ".page", shape, typedQuery::getResultList);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> queryMetrics.time(queryName + ".count", shape, () -> count(specification)));
+    }
+
+    private long count(Specification<Record> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Record> root = query.from(Record.class);
+        query.select(criteriaBuilder.count(root));
+        applySpecification(specification, root, query, criteriaBuilder);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private void applySpecification(Specification<Record> specification, Root<Record> root, CriteriaQuery<?> query,
+                                    CriteriaBuilder criteriaBuilder) {
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
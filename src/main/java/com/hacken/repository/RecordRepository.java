@@ -6,5 +6,6 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface RecordRepository extends JpaRepository<Record, Long>, JpaSpecificationExecutor<Record> {
+public interface RecordRepository extends JpaRepository<Record, Long>, JpaSpecificationExecutor<Record>,
+        RecordProjectionRepository {
 }
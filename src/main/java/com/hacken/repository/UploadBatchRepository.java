@@ -0,0 +1,67 @@
+package com.hacken.repository;
+
+import com.hacken.model.UploadBatch;
+import com.hacken.model.UploadBatchState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class UploadBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long create() {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("INSERT INTO upload_batch (state, row_count, created_at) VALUES (?, ?, ?)",
+                    new String[]{"id"});
+            ps.setString(1, UploadBatchState.IN_PROGRESS.name());
+            ps.setLong(2, 0);
+            ps.setTimestamp(3, Timestamp.from(Instant.now()));
+            return ps;
+        }, keyHolder);
+        return Objects.requireNonNull(keyHolder.getKey()).longValue();
+    }
+
+    public Optional<UploadBatch> find(long id) {
+        return jdbcTemplate.query("SELECT id, state, row_count, sha256, created_at FROM upload_batch WHERE id = ?",
+                (rs, rowNum) -> new UploadBatch(
+                        rs.getLong("id"),
+                        UploadBatchState.valueOf(rs.getString("state")),
+                        rs.getLong("row_count"),
+                        rs.getString("sha256"),
+                        rs.getTimestamp("created_at").toInstant()),
+                id).stream().findFirst();
+    }
+
+    public void complete(long id, long rowCount, String sha256) {
+        jdbcTemplate.update("UPDATE upload_batch SET state = ?, row_count = ?, sha256 = ? WHERE id = ?",
+                UploadBatchState.COMPLETED.name(), rowCount, sha256, id);
+    }
+
+    /**
+     * Marks a batch whose upload failed after some of its chunks committed, counting the rows it holds.
+     */
+    public void markIncomplete(long id) {
+        jdbcTemplate.update("UPDATE upload_batch SET state = ?, row_count = (SELECT COUNT(*) FROM record WHERE batch_id = ?) WHERE id = ?",
+                UploadBatchState.INCOMPLETE.name(), id, id);
+    }
+
+    public void markDeleting(long id) {
+        jdbcTemplate.update("UPDATE upload_batch SET state = ? WHERE id = ?", UploadBatchState.DELETING.name(), id);
+    }
+
+    public void delete(long id) {
+        jdbcTemplate.update("DELETE FROM upload_batch WHERE id = ?", id);
+    }
+}
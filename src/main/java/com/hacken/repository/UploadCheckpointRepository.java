@@ -0,0 +1,62 @@
+package com.hacken.repository;
+
+import com.hacken.model.UploadCheckpoint;
+import com.hacken.model.UploadCheckpointState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class UploadCheckpointRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<UploadCheckpoint> find(String sha256) {
+        return jdbcTemplate.query("SELECT sha256, state, char_offset, row_offset, rows_saved, rows_rejected, updated_at, batch_id "
+                        + "FROM upload_checkpoint WHERE sha256 = ?",
+                (rs, rowNum) -> new UploadCheckpoint(
+                        rs.getString("sha256"),
+                        UploadCheckpointState.valueOf(rs.getString("state")),
+                        rs.getLong("char_offset"),
+                        rs.getLong("row_offset"),
+                        rs.getLong("rows_saved"),
+                        rs.getLong("rows_rejected"),
+                        rs.getTimestamp("updated_at").toInstant(),
+                        rs.getObject("batch_id", Long.class)),
+                sha256).stream().findFirst();
+    }
+
+    public boolean insert(UploadCheckpoint checkpoint) {
+        try {
+            jdbcTemplate.update("INSERT INTO upload_checkpoint (sha256, state, char_offset, row_offset, rows_saved, rows_rejected, updated_at, "
+                            + "batch_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    checkpoint.getSha256(), checkpoint.getState().name(), checkpoint.getCharOffset(), checkpoint.getRowOffset(),
+                    checkpoint.getRowsSaved(), checkpoint.getRowsRejected(), Timestamp.from(checkpoint.getUpdatedAt()),
+                    checkpoint.getBatchId());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Moves the checkpoint forward only if it is still at {@code expectedRowOffset}, so two clients resuming the same
+     * file cannot both commit the same chunk. Returns {@code false} when another upload advanced it first.
+     */
+    public boolean advance(UploadCheckpoint checkpoint, long expectedRowOffset) {
+        return jdbcTemplate.update("UPDATE upload_checkpoint SET state = ?, char_offset = ?, row_offset = ?, rows_saved = ?, "
+                        + "rows_rejected = ?, updated_at = ? WHERE sha256 = ? AND row_offset = ? AND state = ?",
+                checkpoint.getState().name(), checkpoint.getCharOffset(), checkpoint.getRowOffset(), checkpoint.getRowsSaved(),
+                checkpoint.getRowsRejected(), Timestamp.from(checkpoint.getUpdatedAt()), checkpoint.getSha256(),
+                expectedRowOffset, UploadCheckpointState.IN_PROGRESS.name()) == 1;
+    }
+
+    public void delete(String sha256) {
+        jdbcTemplate.update("DELETE FROM upload_checkpoint WHERE sha256 = ?", sha256);
+    }
+}
@@ -0,0 +1,39 @@
+package com.hacken.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@Repository
+@RequiredArgsConstructor
+public class UploadFingerprintRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean exists(String sha256) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM upload_fingerprint WHERE sha256 = ?", Integer.class, sha256);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Records the fingerprint of an ingested file. Returns {@code false} when another upload already claimed it,
+     * which the primary key decides even for concurrent uploads of the same file.
+     */
+    public boolean insert(String sha256, long rowCount) {
+        try {
+            jdbcTemplate.update("INSERT INTO upload_fingerprint (sha256, row_count, uploaded_at) VALUES (?, ?, ?)",
+                    sha256, rowCount, Timestamp.from(Instant.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void delete(String sha256) {
+        jdbcTemplate.update("DELETE FROM upload_fingerprint WHERE sha256 = ?", sha256);
+    }
+}
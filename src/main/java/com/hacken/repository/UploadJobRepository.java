@@ -0,0 +1,39 @@
+package com.hacken.repository;
+
+import com.hacken.model.UploadJob;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+public class UploadJobRepository {
+
+    private final Map<UUID, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    private final Duration retention;
+
+    public UploadJobRepository(@Value("${records.upload.job-retention:PT1H}") Duration retention) {
+        this.retention = retention;
+    }
+
+    public UploadJob save(UploadJob job) {
+        evictExpiredJobs();
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public Optional<UploadJob> findById(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void evictExpiredJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+}
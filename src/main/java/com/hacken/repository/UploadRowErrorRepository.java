@@ -0,0 +1,44 @@
+package com.hacken.repository;
+
+import com.hacken.model.UploadRowError;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class UploadRowErrorRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void batchInsert(List<UploadRowError> errors) {
+        if (errors.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO upload_row_error (sha256, record_number, message, raw_row) VALUES (?, ?, ?, ?)",
+                errors, errors.size(), (ps, error) -> {
+                    ps.setString(1, error.getSha256());
+                    ps.setLong(2, error.getRecordNumber());
+                    ps.setString(3, error.getMessage());
+                    ps.setString(4, error.getRawRow());
+                });
+    }
+
+    public List<UploadRowError> findBySha256(String sha256, int limit) {
+        return jdbcTemplate.query("SELECT id, sha256, record_number, message, raw_row FROM upload_row_error "
+                        + "WHERE sha256 = ? ORDER BY record_number LIMIT ?",
+                (rs, rowNum) -> new UploadRowError(
+                        rs.getLong("id"),
+                        rs.getString("sha256"),
+                        rs.getLong("record_number"),
+                        rs.getString("message"),
+                        rs.getString("raw_row")),
+                sha256, limit);
+    }
+
+    public void deleteBySha256(String sha256) {
+        jdbcTemplate.update("DELETE FROM upload_row_error WHERE sha256 = ?", sha256);
+    }
+}
@@ -0,0 +1,13 @@
+package com.hacken.service;
+
+import com.hacken.dto.BatchSearchQueryDTO;
+import com.hacken.dto.RecordDTO;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+
+public interface RecordBatchSearchService {
+
+    Map<String, Page<RecordDTO>> search(List<BatchSearchQueryDTO> queries);
+}
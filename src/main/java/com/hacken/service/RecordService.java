@@ -1,15 +1,55 @@
 package com.hacken.service;
 
+import com.hacken.admission.AdmissionPermit;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.dto.RecordFacetsDTO;
+import com.hacken.dto.UploadBatchDeletionDTO;
+import com.hacken.dto.UploadReportDTO;
 import com.hacken.model.Record;
+import com.hacken.model.UploadBatch;
+import com.hacken.model.UploadJob;
+import com.hacken.parser.UploadEncoding;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
 public interface RecordService {
 
-    public void saveCsvData(MultipartFile file, char delimiter);
+    public long saveCsvData(MultipartFile file, char delimiter);
+
+    long saveCsvStream(InputStream inputStream, UploadEncoding encoding, char delimiter);
+
+    UploadReportDTO saveCsvResumable(MultipartFile file, char delimiter);
+
+    UploadReportDTO getUploadReport(String sha256);
+
+    UploadJob submitCsvUpload(MultipartFile file, char delimiter, AdmissionPermit permit);
+
+    UploadJob getUploadJob(UUID jobId);
+
+    UploadBatch getUploadBatch(long batchId);
+
+    UploadBatchDeletionDTO deleteUploadBatch(long batchId);
+
+    Page<RecordDTO> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, Long batchId, int pageNum, int pageSize);
+
+    Map<String, Page<RecordDTO>> getAllRecordsByDepartments(RecordCriteriaDTO criteria, Collection<String> departments, int pageNum, int pageSize);
+
+    List<Record> getRecordsByCriteriaAfter(RecordCriteriaDTO criteria, Long afterId, int limit);
+
+    RecordFacetsDTO getFacets(RecordCriteriaDTO criteria);
+
+    void streamRecordsByCriteria(RecordCriteriaDTO criteria, Consumer<Record> consumer);
 
-    Page<Record> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, int pageNum, int pageSize);
+    Page<RecordDTO> getAllRecordsByText(String text, int pageNum, int pageSize);
 
-    Page<Record> getAllRecordsByText(String text, int pageNum, int pageSize);
+    List<Record> getRecordsByTextAfter(String text, Long afterId, int limit);
 
 }
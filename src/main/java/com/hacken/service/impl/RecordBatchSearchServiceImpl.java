@@ -0,0 +1,148 @@
+package com.hacken.service.impl;
+
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.dto.BatchSearchQueryDTO;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.exception.InvalidBatchSearchException;
+import com.hacken.service.RecordBatchSearchService;
+import com.hacken.service.RecordService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Answers a list of criteria queries in one call. Queries that differ only by department are read together with one
+ * grouped statement, the rest run in parallel on virtual threads. At most {@code maxConcurrency} statements of all
+ * batches run at a time, so a batch never takes more than that share of the connection pool.
+ */
+@Slf4j
+@Service
+public class RecordBatchSearchServiceImpl implements RecordBatchSearchService {
+
+    private final RecordService recordService;
+
+    private final ExecutorService searchBatchExecutor;
+
+    private final RecordSearchProperties.Batch properties;
+
+    private final Semaphore connections;
+
+    private final Counter mergedQueries;
+
+    private final Counter singleQueries;
+
+    public RecordBatchSearchServiceImpl(RecordService recordService, ExecutorService searchBatchExecutor,
+                                        RecordSearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.recordService = recordService;
+        this.searchBatchExecutor = searchBatchExecutor;
+        this.properties = searchProperties.getBatch();
+        this.connections = new Semaphore(properties.getMaxConcurrency(), true);
+        this.mergedQueries = Counter.builder("records.search.batch.queries").tag("execution", "merged").register(meterRegistry);
+        this.singleQueries = Counter.builder("records.search.batch.queries").tag("execution", "single").register(meterRegistry);
+    }
+
+    @Override
+    public Map<String, Page<RecordDTO>> search(List<BatchSearchQueryDTO> queries) {
+        validate(queries);
+        Map<String, Page<RecordDTO>> pages = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (List<BatchSearchQueryDTO> group : groupByMergeKey(queries)) {
+            if (group.size() > 1) {
+                mergedQueries.increment(group.size());
+                tasks.add(submit(() -> searchMerged(group, pages)));
+            } else {
+                singleQueries.increment();
+                BatchSearchQueryDTO query = group.get(0);
+                tasks.add(submit(() -> pages.put(query.id(), recordService.getAllRecordsByCriteria(
+                        query.fullName(), query.age(), query.position(), query.department(), query.batchId(),
+                        query.pageNum(), query.pageSize()))));
+            }
+        }
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        Map<String, Page<RecordDTO>> result = new LinkedHashMap<>();
+        queries.forEach(query -> result.put(query.id(), pages.get(query.id())));
+        log.info("Answered {} batch queries in {} tasks", queries.size(), tasks.size());
+        return result;
+    }
+
+    private void searchMerged(List<BatchSearchQueryDTO> group, Map<String, Page<RecordDTO>> pages) {
+        BatchSearchQueryDTO first = group.get(0);
+        RecordCriteriaDTO criteria = new RecordCriteriaDTO(first.fullName(), first.age(), first.position(), null, first.batchId());
+        Set<String> departments = new HashSet<>();
+        group.forEach(query -> departments.add(query.department()));
+        Map<String, Page<RecordDTO>> pagesByDepartment =
+                recordService.getAllRecordsByDepartments(criteria, departments, first.pageNum(), first.pageSize());
+        group.forEach(query -> pages.put(query.id(), pagesByDepartment.get(query.department())));
+    }
+
+    private CompletableFuture<Void> submit(Runnable search) {
+        return CompletableFuture.runAsync(() -> {
+            connections.acquireUninterruptibly();
+            try {
+                search.run();
+            } finally {
+                connections.release();
+            }
+        }, searchBatchExecutor);
+    }
+
+    private List<List<BatchSearchQueryDTO>> groupByMergeKey(List<BatchSearchQueryDTO> queries) {
+        Map<Object, List<BatchSearchQueryDTO>> groups = new LinkedHashMap<>();
+        for (BatchSearchQueryDTO query : queries) {
+            RecordCriteriaDTO criteria = query.toCriteria();
+            long rows = (long) query.pageNum() * query.pageSize();
+            Object key = criteria.department() == null || rows > properties.getMaxMergedRows()
+                    ? query.id()
+                    : new MergeKey(criteria.fullName(), criteria.age(), criteria.position(), criteria.batchId(),
+                    query.pageNum(), query.pageSize());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(query);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private void validate(List<BatchSearchQueryDTO> queries) {
+        if (queries == null || queries.isEmpty()) {
+            throw new InvalidBatchSearchException("Batch should contain at least one query");
+        }
+        if (queries.size() > properties.getMaxQueries()) {
+            throw new InvalidBatchSearchException("Batch should contain at most " + properties.getMaxQueries() + " queries");
+        }
+        Set<String> ids = new HashSet<>();
+        for (BatchSearchQueryDTO query : queries) {
+            if (query == null || query.id() == null || query.id().isBlank()) {
+                throw new InvalidBatchSearchException("Every query should have an id");
+            }
+            if (!ids.add(query.id())) {
+                throw new InvalidBatchSearchException("Duplicate query id: " + query.id());
+            }
+            if (query.pageNum() < 1 || query.pageSize() < 1) {
+                throw new InvalidBatchSearchException("page and page size should be greater or equals one in query " + query.id());
+            }
+        }
+    }
+
+    private record MergeKey(String fullName, Integer age, String position, Long batchId, int pageNum, int pageSize) {
+    }
+}
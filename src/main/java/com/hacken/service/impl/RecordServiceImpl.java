@@ -1,15 +1,57 @@
 package com.hacken.service.impl;
 
+import com.hacken.actuator.CsvUploadMetrics;
+import com.hacken.actuator.DatabaseQueryMetrics;
+import com.hacken.actuator.IngestSample;
+import com.hacken.actuator.QueryShape;
+import com.hacken.admission.AdmissionPermit;
+import com.hacken.cache.RecordSearchCache;
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.config.RecordUploadProperties;
+import com.hacken.dictionary.RecordDictionaries;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.dto.RecordFacetsDTO;
+import com.hacken.dto.UploadBatchDeletionDTO;
+import com.hacken.dto.UploadReportDTO;
+import com.hacken.event.RecordChangeCollector;
 import com.hacken.exception.CsvParsingException;
+import com.hacken.exception.DuplicateUploadException;
 import com.hacken.exception.FileUploadException;
-import com.hacken.exception.InvalidDelimiterException;
+import com.hacken.exception.UploadBatchNotFoundException;
+import com.hacken.exception.UploadCheckpointNotFoundException;
+import com.hacken.exception.UploadJobNotFoundException;
+import com.hacken.facet.FacetCounts;
+import com.hacken.facet.RecordFacetIndex;
+import com.hacken.idempotency.UploadFingerprints;
+import com.hacken.index.ColumnarRecordSnapshot;
+import com.hacken.index.RecordTrigramIndex;
+import com.hacken.mapper.RecordMapperUtil;
+import com.hacken.mapper.UploadReportMapperUtil;
 import com.hacken.model.Record;
+import com.hacken.model.UploadBatch;
+import com.hacken.model.UploadBatchState;
+import com.hacken.model.UploadCheckpoint;
+import com.hacken.model.UploadCheckpointState;
+import com.hacken.model.UploadJob;
+import com.hacken.model.UploadRowError;
+import com.hacken.parser.BoundedInputStream;
+import com.hacken.parser.CsvDelimiters;
+import com.hacken.parser.CsvResume;
+import com.hacken.parser.ParallelCsvParser;
+import com.hacken.parser.RecordTokenizer;
+import com.hacken.parser.UploadEncoding;
+import com.hacken.repository.RecordJdbcRepository;
 import com.hacken.repository.RecordRepository;
+import com.hacken.repository.UploadBatchRepository;
+import com.hacken.repository.UploadCheckpointRepository;
+import com.hacken.repository.UploadJobRepository;
+import com.hacken.repository.UploadRowErrorRepository;
 import com.hacken.service.RecordService;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j;
 import lombok.extern.log4j.Log4j2;
@@ -18,49 +60,647 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RecordServiceImpl implements RecordService {
 
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_RAW_ROW_LENGTH = 1024;
+
+    /**
+     * Length of the {@code VARCHAR(255)} columns holding full names and dictionary values.
+     */
+    private static final int MAX_TEXT_FIELD_LENGTH = 255;
+
     private final RecordRepository recordRepository;
 
+    private final RecordJdbcRepository recordJdbcRepository;
+
+    private final RecordUploadProperties uploadProperties;
+
+    private final UploadJobRepository uploadJobRepository;
+
+    private final ExecutorService uploadJobExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ParallelCsvParser parallelCsvParser;
+
+    private final RecordChangeCollector recordChangeCollector;
+
+    private final RecordTrigramIndex trigramIndex;
+
+    private final RecordSearchCache searchCache;
+
+    private final RecordDictionaries recordDictionaries;
+
+    private final RecordSearchProperties searchProperties;
+
+    private final CsvUploadMetrics csvUploadMetrics;
+
+    private final DatabaseQueryMetrics queryMetrics;
+
+    private final UploadFingerprints uploadFingerprints;
+
+    private final RecordFacetIndex facetIndex;
+
+    private final ColumnarRecordSnapshot columnarSnapshot;
+
+    private final UploadCheckpointRepository uploadCheckpointRepository;
+
+    private final UploadRowErrorRepository uploadRowErrorRepository;
+
+    private final UploadBatchRepository uploadBatchRepository;
+
     @Override
     @Transactional
-    public void saveCsvData(MultipartFile file, char delimiter) {
+    public long saveCsvData(MultipartFile file, char delimiter) {
         log.info("Attempting to save data from MultipartFile");
-        List<Record> dataList = parseCsv(file, delimiter);
-        log.info("Successfully saved records to the database.");
-        recordRepository.saveAll(dataList);
+        IngestSample sample = csvUploadMetrics.startUpload(file.getSize());
+        try {
+            checkFileNotEmpty(file);
+            CsvDelimiters.validate(delimiter);
+            sample.timeCommit();
+            long batchId;
+            long savedRecords;
+            if (requiresSpooledFile()) {
+                SpooledUpload upload = spoolToTempFile(file, sample);
+                try {
+                    batchId = uploadBatchRepository.create();
+                    savedRecords = ingestSpooledUpload(upload, delimiter, batchId, sample, rows -> {
+                    });
+                } finally {
+                    deleteSpooledFile(upload.path());
+                }
+            } else {
+                InputStream inputStream = getInputStream(file);
+                DigestInputStream digestingStream = uploadFingerprints.isEnabled() ? uploadFingerprints.digesting(inputStream) : null;
+                batchId = uploadBatchRepository.create();
+                sample.startIngest(rows -> {
+                });
+                savedRecords = ingestUploadStream(digestingStream != null ? digestingStream : inputStream, delimiter, batchId,
+                        digestingStream, sample);
+                sample.finishIngest();
+            }
+            log.info("Successfully saved {} records to the database in batch {}.", savedRecords, batchId);
+            return batchId;
+        } catch (RuntimeException e) {
+            csvUploadMetrics.recordFailure(e);
+            throw e;
+        } finally {
+            sample.finish();
+        }
     }
 
-    private List<Record> parseCsv(MultipartFile file, char delimiter) {
-        List<Record> recordList;
+    /**
+     * Ingests a request body of any size, committing every {@code batch-size} chunk in its own transaction like the
+     * resumable upload, so neither locks nor undo log grow with the body. The fingerprint can only be claimed once
+     * the body has been read, in the transaction that completes the batch. When the upload fails the batch is first
+     * recorded as {@link UploadBatchState#INCOMPLETE} and its committed chunks are then rolled back; if that rollback
+     * fails too, {@code DELETE /records/batches/{batchId}} finishes it.
+     */
+    @Override
+    public long saveCsvStream(InputStream inputStream, UploadEncoding encoding, char delimiter) {
+        log.info("Attempting to save data from {} request body", encoding);
+        IngestSample sample = csvUploadMetrics.startUpload();
+        RecordUploadProperties.Stream limits = uploadProperties.getStream();
+        BoundedInputStream body = new BoundedInputStream(inputStream, limits.getMaxSize().toBytes(), "Request body");
+        Long batchId = null;
+        try {
+            CsvDelimiters.validate(delimiter);
+            batchId = transactionTemplate.execute(status -> uploadBatchRepository.create());
+            DigestInputStream digestingStream = uploadFingerprints.isEnabled() ? uploadFingerprints.digesting(body) : null;
+            InputStream rawStream = digestingStream != null ? digestingStream : body;
+            sample.startIngest(rows -> {
+            });
+            long savedRecords = ingestEncodedStream(rawStream, encoding, delimiter, batchId, limits.getMaxDecompressedSize().toBytes(), sample);
+            sample.finishIngest();
+            String fingerprint = null;
+            if (digestingStream != null) {
+                rawStream.transferTo(OutputStream.nullOutputStream());
+                fingerprint = uploadFingerprints.fingerprint(digestingStream);
+            }
+            completeStreamBatch(batchId, savedRecords, fingerprint);
+            log.info("Successfully saved {} records to the database in batch {}.", savedRecords, batchId);
+            return batchId;
+        } catch (IOException e) {
+            log.error("Failed to read {} request body", encoding, e);
+            FileUploadException failure = new FileUploadException("Failed to upload file");
+            csvUploadMetrics.recordFailure(failure);
+            abandonStreamBatch(batchId);
+            throw failure;
+        } catch (RuntimeException e) {
+            csvUploadMetrics.recordFailure(e);
+            abandonStreamBatch(batchId);
+            throw e;
+        } finally {
+            csvUploadMetrics.recordUploadSize(body.getCount());
+            sample.finish();
+        }
+    }
+
+    private void completeStreamBatch(long batchId, long savedRecords, String fingerprint) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (fingerprint != null) {
+                uploadFingerprints.claim(fingerprint, savedRecords);
+            }
+            uploadBatchRepository.complete(batchId, savedRecords, fingerprint);
+        });
+    }
+
+    private void abandonStreamBatch(Long batchId) {
+        if (batchId == null) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> uploadBatchRepository.markIncomplete(batchId));
+            deleteUploadBatch(batchId);
+        } catch (RuntimeException e) {
+            log.error("Failed to roll back incomplete upload batch {}, delete it to remove its records", batchId, e);
+        }
+    }
+
+    @Override
+    public UploadJob submitCsvUpload(MultipartFile file, char delimiter, AdmissionPermit permit) {
+        log.info("Attempting to submit upload job for MultipartFile");
+        IngestSample sample = csvUploadMetrics.startUpload(file.getSize());
+        try {
+            checkFileNotEmpty(file);
+            CsvDelimiters.validate(delimiter);
+            SpooledUpload upload = spoolToTempFile(file, sample);
+            try {
+                checkNotUploaded(upload);
+            } catch (RuntimeException e) {
+                deleteSpooledFile(upload.path());
+                throw e;
+            }
+            UploadJob job = uploadJobRepository.save(new UploadJob());
+            uploadJobExecutor.execute(() -> {
+                try (permit) {
+                    runUploadJob(job, upload, delimiter, sample);
+                }
+            });
+            log.info("Submitted upload job {}", job.getId());
+            return job;
+        } catch (RuntimeException e) {
+            csvUploadMetrics.recordFailure(e);
+            sample.finish();
+            throw e;
+        }
+    }
+
+    @Override
+    public UploadReportDTO saveCsvResumable(MultipartFile file, char delimiter) {
+        log.info("Attempting to save data from MultipartFile in resumable chunks");
+        IngestSample sample = csvUploadMetrics.startUpload(file.getSize());
         try {
             checkFileNotEmpty(file);
-            validateDelimiter(delimiter);
-            BufferedReader br = new BufferedReader(new InputStreamReader(file.getInputStream()));
-            CSVParser csvParser = getCsvParser(delimiter, br);
-            recordList = processCsvRecords(csvParser);
+            CsvDelimiters.validate(delimiter);
+            SpooledUpload upload = spoolToTempFile(file, sample, true);
+            try {
+                return ingestResumable(upload, delimiter, sample);
+            } finally {
+                deleteSpooledFile(upload.path());
+            }
+        } catch (RuntimeException e) {
+            csvUploadMetrics.recordFailure(e);
+            throw e;
+        } finally {
+            sample.finish();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UploadReportDTO getUploadReport(String sha256) {
+        UploadCheckpoint checkpoint = uploadCheckpointRepository.find(sha256)
+                .orElseThrow(() -> new UploadCheckpointNotFoundException("Upload checkpoint not found: " + sha256));
+        return toUploadReport(checkpoint, checkpoint.getRowOffset());
+    }
+
+    @Override
+    public UploadJob getUploadJob(UUID jobId) {
+        return uploadJobRepository.findById(jobId)
+                .orElseThrow(() -> new UploadJobNotFoundException("Upload job not found: " + jobId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UploadBatch getUploadBatch(long batchId) {
+        return uploadBatchRepository.find(batchId)
+                .orElseThrow(() -> new UploadBatchNotFoundException("Upload batch not found: " + batchId));
+    }
+
+    /**
+     * Deletes the records of an upload batch in chunks of {@code records.upload.rollback.chunk-size}, each in its own
+     * short transaction, so no lock is held for longer than one chunk. An interrupted rollback is finished by
+     * calling it again. Once the batch is empty its fingerprint is forgotten, so the same file can be uploaded again.
+     */
+    @Override
+    public UploadBatchDeletionDTO deleteUploadBatch(long batchId) {
+        log.info("Attempting to delete upload batch {}", batchId);
+        UploadBatch batch = getUploadBatch(batchId);
+        uploadBatchRepository.markDeleting(batchId);
+        int chunkSize = uploadProperties.getRollback().getChunkSize();
+        QueryShape shape = new QueryShape("batch", "batchId=" + batchId);
+        long deletedRecords = 0;
+        int chunks = 0;
+        DeletedChunk chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> queryMetrics.time("batch.delete", shape,
+                    () -> deleteUploadBatchChunk(batchId, chunkSize)));
+            deletedRecords += chunk.deleted();
+            chunks++;
+        } while (chunk.selected() == chunkSize);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (batch.getSha256() != null) {
+                uploadFingerprints.forget(batch.getSha256());
+                uploadCheckpointRepository.delete(batch.getSha256());
+                uploadRowErrorRepository.deleteBySha256(batch.getSha256());
+            }
+            uploadBatchRepository.delete(batchId);
+        });
+        log.info("Deleted {} records of upload batch {} in {} chunks", deletedRecords, batchId, chunks);
+        return new UploadBatchDeletionDTO(batchId, deletedRecords, chunks);
+    }
+
+    private DeletedChunk deleteUploadBatchChunk(long batchId, int chunkSize) {
+        List<Record> records = recordJdbcRepository.findFirstByBatchId(batchId, chunkSize);
+        List<Record> deleted = recordJdbcRepository.deleteByIds(records);
+        if (!deleted.isEmpty()) {
+            recordChangeCollector.deleted(deleted);
+        }
+        return new DeletedChunk(records.size(), deleted.size());
+    }
+
+    private InputStream getInputStream(MultipartFile file) {
+        try {
+            return file.getInputStream();
+        } catch (IOException e) {
+            log.error("Failed to parse CSV file");
+            throw new CsvParsingException("Failed to parse CSV file");
+        }
+    }
+
+    private SpooledUpload spoolToTempFile(MultipartFile file, IngestSample sample) {
+        return spoolToTempFile(file, sample, uploadFingerprints.isEnabled());
+    }
+
+    private SpooledUpload spoolToTempFile(MultipartFile file, IngestSample sample, boolean fingerprinted) {
+        long start = System.nanoTime();
+        try {
+            Path spooledFile = Files.createTempFile("records-upload-", ".csv");
+            String fingerprint = null;
+            if (fingerprinted) {
+                try (DigestInputStream inputStream = uploadFingerprints.digesting(file.getInputStream())) {
+                    Files.copy(inputStream, spooledFile, StandardCopyOption.REPLACE_EXISTING);
+                    fingerprint = uploadFingerprints.fingerprint(inputStream);
+                }
+            } else {
+                file.transferTo(spooledFile);
+            }
+            sample.recordSpool(System.nanoTime() - start);
+            return new SpooledUpload(spooledFile, fingerprint);
         } catch (IOException e) {
+            log.error("Failed to spool uploaded file", e);
+            throw new FileUploadException("Failed to upload file");
+        }
+    }
+
+    private void runUploadJob(UploadJob job, SpooledUpload upload, char delimiter, IngestSample sample) {
+        job.start();
+        try {
+            long batchId = transactionTemplate.execute(status -> {
+                sample.timeCommit();
+                long id = uploadBatchRepository.create();
+                ingestSpooledUpload(upload, delimiter, id, sample, job::addRowsProcessed);
+                return id;
+            });
+            job.complete(batchId);
+            csvUploadMetrics.incrementCsvUpload();
+            log.info("Upload job {} saved {} records in batch {}", job.getId(), job.getRowsProcessed(), batchId);
+        } catch (RuntimeException e) {
+            log.error("Upload job {} failed", job.getId(), e);
+            csvUploadMetrics.recordFailure(e);
+            job.fail(Objects.toString(e.getMessage(), e.getClass().getSimpleName()));
+        } finally {
+            sample.finish();
+            deleteSpooledFile(upload.path());
+        }
+    }
+
+    private void checkNotUploaded(SpooledUpload upload) {
+        if (upload.fingerprint() != null) {
+            uploadFingerprints.checkNotUploaded(upload.fingerprint());
+        }
+    }
+
+    private long ingestSpooledUpload(SpooledUpload upload, char delimiter, long batchId, IngestSample sample, LongConsumer progress) {
+        checkNotUploaded(upload);
+        long savedRecords = ingestCsv(upload.path(), delimiter, batchId, sample, progress);
+        if (upload.fingerprint() != null) {
+            uploadFingerprints.claim(upload.fingerprint(), savedRecords);
+        }
+        uploadBatchRepository.complete(batchId, savedRecords, upload.fingerprint());
+        return savedRecords;
+    }
+
+    /**
+     * Ingests a multipart file, hashing it while it is parsed when {@code digestingStream} is given. The parser reads
+     * the file to its end, so the fingerprint is complete afterwards and is claimed before the upload transaction
+     * commits; a file that was already uploaded rolls the whole upload back.
+     */
+    private long ingestUploadStream(InputStream inputStream, char delimiter, long batchId, DigestInputStream digestingStream,
+                                    IngestSample sample) {
+        long savedRecords = ingestCsv(inputStream, delimiter, batchId, sample);
+        String fingerprint = digestingStream != null ? uploadFingerprints.fingerprint(digestingStream) : null;
+        if (fingerprint != null) {
+            uploadFingerprints.claim(fingerprint, savedRecords);
+        }
+        uploadBatchRepository.complete(batchId, savedRecords, fingerprint);
+        return savedRecords;
+    }
+
+    private long ingestEncodedStream(InputStream rawStream, UploadEncoding encoding, char delimiter, long batchId,
+                                     long maxDecompressedBytes, IngestSample sample) throws IOException {
+        switch (encoding) {
+            case GZIP -> {
+                try (GZIPInputStream gzipStream = new GZIPInputStream(rawStream, GZIP_BUFFER_SIZE)) {
+                    return ingestCsvInChunks(new BoundedInputStream(gzipStream, maxDecompressedBytes, "Decompressed upload"), delimiter, batchId, sample);
+                }
+            }
+            case ZIP -> {
+                try (ZipInputStream zipStream = new ZipInputStream(rawStream)) {
+                    return ingestZipEntries(zipStream, delimiter, batchId, maxDecompressedBytes, sample);
+                }
+            }
+            default -> {
+                return ingestCsvInChunks(new BoundedInputStream(rawStream, maxDecompressedBytes, "Upload"), delimiter, batchId, sample);
+            }
+        }
+    }
+
+    /**
+     * Ingests every {@code .csv} entry of the archive. Other entries are read through the same bound and discarded
+     * instead of being skipped by {@link ZipInputStream#getNextEntry()}, which would inflate them without any limit.
+     */
+    private long ingestZipEntries(ZipInputStream zipStream, char delimiter, long batchId, long maxDecompressedBytes,
+                                  IngestSample sample) throws IOException {
+        BoundedInputStream entries = new BoundedInputStream(zipStream, maxDecompressedBytes, "Decompressed upload");
+        long savedRecords = 0;
+        ZipEntry entry;
+        while ((entry = zipStream.getNextEntry()) != null) {
+            if (entry.isDirectory() || !entry.getName().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                log.info("Skipping zip entry {}", entry.getName());
+            } else {
+                log.info("Ingesting zip entry {}", entry.getName());
+                savedRecords += ingestCsvInChunks(entries, delimiter, batchId, sample);
+            }
+            entries.transferTo(OutputStream.nullOutputStream());
+        }
+        return savedRecords;
+    }
+
+    private UploadReportDTO ingestResumable(SpooledUpload upload, char delimiter, IngestSample sample) {
+        UploadCheckpoint checkpoint = findOrStartCheckpoint(upload.fingerprint());
+        long resumedFromRow = checkpoint.getRowOffset();
+        if (checkpoint.getState() == UploadCheckpointState.COMPLETED) {
+            log.info("Upload {} has already been completed, returning its report", checkpoint.getSha256());
+            return toUploadReport(checkpoint, resumedFromRow);
+        }
+        if (resumedFromRow > 0) {
+            log.info("Resuming upload {} from row {}", checkpoint.getSha256(), resumedFromRow);
+        }
+        int chunkSize = uploadProperties.getResumable().getChunkSize();
+        sample.startIngest(rows -> {
+        });
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(Files.newInputStream(upload.path()), StandardCharsets.UTF_8));
+             CSVParser csvParser = CsvResume.open(br, getCsvFormat(delimiter), checkpoint.getCharOffset(), checkpoint.getRowOffset())) {
+            List<Record> records = new ArrayList<>(chunkSize);
+            List<UploadRowError> errors = new ArrayList<>();
+            long chunkRows = 0;
+            for (CSVRecord row : csvParser) {
+                if (chunkRows == chunkSize) {
+                    checkpoint = commitChunk(checkpoint, records, errors, row.getCharacterPosition(), row.getRecordNumber() - 1, false, sample);
+                    records.clear();
+                    errors.clear();
+                    chunkRows = 0;
+                }
+                chunkRows++;
+                try {
+                    records.add(toValidRecord(row));
+                } catch (IllegalArgumentException e) {
+                    errors.add(new UploadRowError(checkpoint.getSha256(), row.getRecordNumber(), e.getMessage(), toRawRow(row, delimiter)));
+                }
+            }
+            checkpoint = commitChunk(checkpoint, records, errors, checkpoint.getCharOffset(), csvParser.getRecordNumber(), true, sample);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to parse CSV file");
+            throw new CsvParsingException("Failed to parse CSV file");
+        }
+        sample.finishIngest();
+        log.info("Upload {} saved {} records and rejected {} rows", checkpoint.getSha256(), checkpoint.getRowsSaved(), checkpoint.getRowsRejected());
+        return toUploadReport(checkpoint, resumedFromRow);
+    }
+
+    private UploadCheckpoint findOrStartCheckpoint(String sha256) {
+        Optional<UploadCheckpoint> existing = uploadCheckpointRepository.find(sha256);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        if (uploadFingerprints.isEnabled()) {
+            uploadFingerprints.checkNotUploaded(sha256);
+        }
+        UploadCheckpoint checkpoint = UploadCheckpoint.start(sha256, uploadBatchRepository.create());
+        if (uploadCheckpointRepository.insert(checkpoint)) {
+            return checkpoint;
+        }
+        uploadBatchRepository.delete(checkpoint.getBatchId());
+        return uploadCheckpointRepository.find(sha256).orElseThrow();
+    }
+
+    /**
+     * Persists one chunk, its rejected rows and the advanced checkpoint in a single transaction, so a retried upload
+     * resumes exactly after the last chunk that committed.
+     */
+    private UploadCheckpoint commitChunk(UploadCheckpoint checkpoint, List<Record> records, List<UploadRowError> errors,
+                                         long nextCharOffset, long nextRowOffset, boolean completed, IngestSample sample) {
+        return transactionTemplate.execute(status -> {
+            long savedRecords = records.isEmpty() ? 0 : persistRecords(new ArrayList<>(records), checkpoint.getBatchId(), sample);
+            long reportRoom = Math.max(0, uploadProperties.getResumable().getMaxReportedErrors() - checkpoint.getRowsRejected());
+            uploadRowErrorRepository.batchInsert(errors.subList(0, (int) Math.min(reportRoom, errors.size())));
+            UploadCheckpoint next = checkpoint.advance(nextCharOffset, nextRowOffset, savedRecords, errors.size(), completed);
+            if (!uploadCheckpointRepository.advance(next, checkpoint.getRowOffset())) {
+                throw new DuplicateUploadException("File is already being uploaded");
+            }
+            if (completed && uploadFingerprints.isEnabled()) {
+                uploadFingerprints.claim(next.getSha256(), next.getRowsSaved());
+            }
+            if (completed && next.getBatchId() != null) {
+                uploadBatchRepository.complete(next.getBatchId(), next.getRowsSaved(), next.getSha256());
+            }
+            return next;
+        });
+    }
+
+    /**
+     * Rejects rows the database would refuse, so one bad row is reported instead of failing its whole chunk on every
+     * retry: a wrong field count, a non-numeric age, and blank or over-long text values.
+     */
+    private Record toValidRecord(CSVRecord row) {
+        if (row.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 fields but found " + row.size());
+        }
+        checkTextField("fullName", row.get(0));
+        checkTextField("position", row.get(2));
+        checkTextField("department", row.get(3));
+        try {
+            return RecordMapperUtil.toRecord(row);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid age '" + row.get(1) + "'");
+        }
+    }
+
+    private void checkTextField(String name, String value) {
+        if (value.isBlank()) {
+            throw new IllegalArgumentException("Field " + name + " is blank");
+        }
+        if (value.codePointCount(0, value.length()) > MAX_TEXT_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Field " + name + " is longer than " + MAX_TEXT_FIELD_LENGTH + " characters");
+        }
+    }
+
+    private String toRawRow(CSVRecord row, char delimiter) {
+        String rawRow = String.join(String.valueOf(delimiter), row.values());
+        return rawRow.length() > MAX_RAW_ROW_LENGTH ? rawRow.substring(0, MAX_RAW_ROW_LENGTH) : rawRow;
+    }
+
+    private UploadReportDTO toUploadReport(UploadCheckpoint checkpoint, long resumedFromRow) {
+        List<UploadRowError> errors = uploadRowErrorRepository.findBySha256(checkpoint.getSha256(),
+                uploadProperties.getResumable().getMaxReportedErrors());
+        return UploadReportMapperUtil.toUploadReportDto(checkpoint, resumedFromRow, errors);
+    }
+
+    private void deleteSpooledFile(Path spooledFile) {
+        try {
+            Files.deleteIfExists(spooledFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled upload {}", spooledFile, e);
+        }
+    }
+
+    private boolean requiresSpooledFile() {
+        return uploadProperties.getParallelParse().isEnabled()
+                || uploadProperties.getParserEngine() == RecordUploadProperties.ParserEngine.RECORD_TOKENIZER;
+    }
+
+    private long ingestCsv(Path spooledFile, char delimiter, long batchId, IngestSample sample, LongConsumer progress) {
+        sample.startIngest(progress);
+        long savedRecords = ingestCsv(spooledFile, delimiter, batchId, sample);
+        sample.finishIngest();
+        return savedRecords;
+    }
+
+    private long ingestCsv(Path spooledFile, char delimiter, long batchId, IngestSample sample) {
+        if (!requiresSpooledFile()) {
+            try (InputStream inputStream = Files.newInputStream(spooledFile)) {
+                return ingestCsv(inputStream, delimiter, batchId, sample);
+            } catch (IOException e) {
+                log.error("Failed to parse CSV file");
+                throw new CsvParsingException("Failed to parse CSV file");
+            }
+        }
+        try {
+            if (uploadProperties.getParallelParse().isEnabled()) {
+                return parallelCsvParser.parse(spooledFile, getCsvFormat(delimiter), records -> persistRecords(records, batchId, sample));
+            }
+            return ingestWithTokenizer(spooledFile, delimiter, batchId, sample);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to parse CSV file");
+            throw new CsvParsingException("Failed to parse CSV file");
+        }
+    }
+
+    private long ingestWithTokenizer(Path spooledFile, char delimiter, long batchId, IngestSample sample) throws IOException {
+        try (FileChannel channel = FileChannel.open(spooledFile, StandardOpenOption.READ)) {
+            long windowSize = uploadProperties.getTokenizerWindowSize().toBytes();
+            return persistInChunks(RecordTokenizer.open(channel, (byte) delimiter, windowSize), batchId, sample);
+        }
+    }
+
+    private long ingestCsv(InputStream inputStream, char delimiter, long batchId, IngestSample sample) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+             CSVParser csvParser = getCsvParser(delimiter, br)) {
+            return switch (uploadProperties.getIngestMode()) {
+                case JDBC_BATCH -> persistInChunks(csvParser.stream().map(RecordMapperUtil::toRecord).iterator(), batchId, sample);
+                case ENTITY -> persistRecords(processCsvRecords(csvParser), batchId, sample);
+            };
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to parse CSV file");
+            throw new CsvParsingException("Failed to parse CSV file");
+        }
+    }
+
+    /**
+     * Parses a streamed body and commits every {@code batch-size} chunk in its own transaction, in either ingest mode.
+     */
+    private long ingestCsvInChunks(InputStream inputStream, char delimiter, long batchId, IngestSample sample) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+             CSVParser csvParser = getCsvParser(delimiter, br)) {
+            return persistInChunks(csvParser.stream().map(RecordMapperUtil::toRecord).iterator(),
+                    chunk -> transactionTemplate.execute(status -> persistRecords(chunk, batchId, sample)));
+        } catch (IOException | UncheckedIOException e) {
             log.error("Failed to parse CSV file");
             throw new CsvParsingException("Failed to parse CSV file");
         }
-        return recordList;
     }
 
     private void checkFileNotEmpty(MultipartFile file) {
@@ -70,44 +710,195 @@ public class RecordServiceImpl implements RecordService {
         }
     }
 
-    private void validateDelimiter(char delimiter) {
-        List<Character> validDelimiters = Arrays.asList(',', ';', '|', ':', '-', '.');
-        if (!validDelimiters.contains(delimiter)) {
-            log.error("Invalid delimiter: {}", delimiter);
-            throw new InvalidDelimiterException("Invalid delimiter");
+    private CSVParser getCsvParser(char delimiter, BufferedReader br) throws IOException {
+        return new CSVParser(br, getCsvFormat(delimiter));
+    }
+
+    private CSVFormat getCsvFormat(char delimiter) {
+        return CSVFormat.Builder.create().setDelimiter(delimiter).build();
+    }
+
+    private long persistInChunks(Iterator<Record> records, long batchId, IngestSample sample) {
+        return persistInChunks(records, chunk -> persistRecords(chunk, batchId, sample));
+    }
+
+    private long persistInChunks(Iterator<Record> records, ToLongFunction<List<Record>> persist) {
+        int batchSize = uploadProperties.getBatchSize();
+        List<Record> chunk = new ArrayList<>(batchSize);
+        long savedRecords = 0;
+        while (records.hasNext()) {
+            chunk.add(records.next());
+            if (chunk.size() == batchSize) {
+                savedRecords += persist.applyAsLong(chunk);
+                chunk.clear();
+            }
         }
+        if (!chunk.isEmpty()) {
+            savedRecords += persist.applyAsLong(chunk);
+        }
+        return savedRecords;
     }
 
-    private CSVParser getCsvParser(char delimiter, BufferedReader br) throws IOException {
-        CSVFormat csvFormat = CSVFormat.Builder.create().setDelimiter(delimiter).build();
-        return new CSVParser(br, csvFormat);
+    private long persistRecords(List<Record> records, long batchId, IngestSample sample) {
+        for (Record record : records) {
+            recordDictionaries.canonicalize(record);
+            record.setBatchId(batchId);
+        }
+        if (uploadProperties.getIngestMode() == RecordUploadProperties.IngestMode.ENTITY
+                && !uploadProperties.getIdempotency().isRowDedup()) {
+            long start = System.nanoTime();
+            int savedRecords = recordRepository.saveAll(records).size();
+            recordChangeCollector.persisted(batchId, records);
+            sample.recordPersist(savedRecords, System.nanoTime() - start);
+            return savedRecords;
+        }
+        int batchSize = uploadProperties.getBatchSize();
+        long savedRecords = 0;
+        for (int from = 0; from < records.size(); from += batchSize) {
+            long start = System.nanoTime();
+            List<Record> chunk = records.subList(from, Math.min(from + batchSize, records.size()));
+            List<Record> inserted = insertChunk(chunk);
+            recordChangeCollector.persisted(batchId, inserted);
+            sample.recordPersist(inserted.size(), System.nanoTime() - start);
+            savedRecords += inserted.size();
+        }
+        return savedRecords;
+    }
+
+    private List<Record> insertChunk(List<Record> chunk) {
+        if (uploadProperties.getIdempotency().isRowDedup()) {
+            return recordJdbcRepository.batchInsertIgnoringDuplicates(chunk);
+        }
+        recordJdbcRepository.batchInsert(chunk);
+        return chunk;
     }
 
     private List<Record> processCsvRecords(CSVParser csvParser) {
         List<Record> records = new ArrayList<>();
         for (CSVRecord record : csvParser) {
-            Record data = new Record(null, record.get(0), Integer.parseInt(record.get(1)), record.get(2), record.get(3));
-            records.add(data);
+            records.add(RecordMapperUtil.toRecord(record));
         }
         return records;
     }
 
     @Override
-    public Page<Record> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, int pageNum, int pageSize) {
-        log.info("Entering getAllRecordsByCriteria with parameters - fullName: {}, age: {}, position: {}, department: {}, pageNum: {}, pageSize: {}",
-                fullName, age, position, department, pageNum, pageSize);
+    @Transactional(readOnly = true)
+    public Page<RecordDTO> getAllRecordsByCriteria(String fullName, Integer age, String position, String department, Long batchId,
+                                                   int pageNum, int pageSize) {
+        log.info("Entering getAllRecordsByCriteria with parameters - fullName: {}, age: {}, position: {}, department: {}, batchId: {}, pageNum: {}, pageSize: {}",
+                fullName, age, position, department, batchId, pageNum, pageSize);
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize, Sort.by("id"));
-        Page<Record> result = recordRepository.findAll((root, query, criteriaBuilder) -> {
+        RecordCriteriaDTO criteria = new RecordCriteriaDTO(fullName, age, position, department, batchId);
+        Page<RecordDTO> result = columnarSnapshot.findPage(criteria, pageable)
+                .orElseGet(() -> searchCache.get(criteria, pageNum, pageSize,
+                        () -> recordRepository.findAllAsDto(buildCriteriaSpecification(criteria), pageable,
+                                "criteria", QueryShape.of(criteria))));
+        log.info("Found {} records matching criteria and in this page is {} records", result.getTotalElements(), result.getContent().size());
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Page<RecordDTO>> getAllRecordsByDepartments(RecordCriteriaDTO criteria, Collection<String> departments,
+                                                                   int pageNum, int pageSize) {
+        log.info("Entering getAllRecordsByDepartments with parameters - criteria: {}, departments: {}, pageNum: {}, pageSize: {}",
+                criteria, departments, pageNum, pageSize);
+        Pageable pageable = PageRequest.of(pageNum - 1, pageSize, Sort.by("id"));
+        Map<String, Page<RecordDTO>> result = new LinkedHashMap<>();
+        Map<String, List<Integer>> missingDepartmentIds = new LinkedHashMap<>();
+        long cacheGeneration = searchCache.generation();
+        for (String department : departments) {
+            RecordCriteriaDTO departmentCriteria = withDepartment(criteria, department);
+            Optional<Page<RecordDTO>> page = columnarSnapshot.findPage(departmentCriteria, pageable)
+                    .or(() -> searchCache.find(departmentCriteria, pageNum, pageSize));
+            if (page.isPresent()) {
+                result.put(department, page.get());
+            } else {
+                missingDepartmentIds.put(department, recordDictionaries.departments().findIdsEqualTo(department));
+            }
+        }
+        if (!missingDepartmentIds.isEmpty()) {
+            Set<Integer> departmentIds = missingDepartmentIds.values().stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            QueryShape shape = QueryShape.of(withDepartment(criteria, missingDepartmentIds.keySet().toString()));
+            Map<Integer, List<Record>> recordsByDepartment = departmentIds.isEmpty() ? Map.of() : queryMetrics.time(
+                    "criteria.batch.page", shape,
+                    () -> recordJdbcRepository.findFirstByDepartment(criteria, departmentIds, (int) pageable.getOffset() + pageSize));
+            Map<Integer, Long> countsByDepartment = departmentIds.isEmpty() ? Map.of() : queryMetrics.time(
+                    "criteria.batch.count", shape,
+                    () -> recordJdbcRepository.countByDepartment(criteria, departmentIds));
+            missingDepartmentIds.forEach((department, ids) -> {
+                List<RecordDTO> content = ids.stream()
+                        .flatMap(id -> recordsByDepartment.getOrDefault(id, List.of()).stream())
+                        .sorted(Comparator.comparing(Record::getId))
+                        .skip(pageable.getOffset())
+                        .limit(pageSize)
+                        .map(RecordMapperUtil::toRecordDto)
+                        .toList();
+                long total = ids.stream().mapToLong(id -> countsByDepartment.getOrDefault(id, 0L)).sum();
+                Page<RecordDTO> page = new PageImpl<>(content, pageable, total);
+                searchCache.put(withDepartment(criteria, department), pageNum, pageSize, page, cacheGeneration);
+                result.put(department, page);
+            });
+        }
+        log.info("Found pages for {} departments, {} of them read with one grouped query", result.size(), missingDepartmentIds.size());
+        return result;
+    }
+
+    private static RecordCriteriaDTO withDepartment(RecordCriteriaDTO criteria, String department) {
+        return new RecordCriteriaDTO(criteria.fullName(), criteria.age(), criteria.position(), department, criteria.batchId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Record> getRecordsByCriteriaAfter(RecordCriteriaDTO criteria, Long afterId, int limit) {
+        log.info("Entering getRecordsByCriteriaAfter with parameters - criteria: {}, afterId: {}, limit: {}", criteria, afterId, limit);
+        List<Record> result = findAfter(buildCriteriaSpecification(criteria), afterId, limit, "criteria.cursor", QueryShape.of(criteria));
+        log.info("Found {} records matching criteria after id {}", result.size(), afterId);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RecordFacetsDTO getFacets(RecordCriteriaDTO criteria) {
+        log.info("Entering getFacets with parameters - criteria: {}", criteria);
+        return facetIndex.findFacets(criteria).orElseGet(() -> {
+            log.info("Counting facets in the database for criteria: {}", criteria);
+            FacetCounts facetCounts = new FacetCounts(searchProperties.getFacets().getAgeBucketSize());
+            queryMetrics.time("facets.count", QueryShape.of(criteria), () -> {
+                recordJdbcRepository.countByFacetCell(criteria, null, facetCounts);
+                return facetCounts;
+            });
+            return facetCounts.toDto(recordDictionaries);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamRecordsByCriteria(RecordCriteriaDTO criteria, Consumer<Record> consumer) {
+        log.info("Entering streamRecordsByCriteria with parameters - criteria: {}", criteria);
+        recordJdbcRepository.streamByCriteria(criteria, searchProperties.getExport().getFetchSize(), consumer);
+    }
+
+    private Specification<Record> buildCriteriaSpecification(RecordCriteriaDTO criteria) {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
-            predicates.add(buildFullNamePredicate(root, criteriaBuilder, fullName));
-            predicates.add(buildAgePredicate(root, criteriaBuilder, age));
-            predicates.add(buildPositionPredicate(root, criteriaBuilder, position));
-            predicates.add(buildDepartmentPredicate(root, criteriaBuilder, department));
+            predicates.add(buildFullNamePredicate(root, criteriaBuilder, criteria.fullName()));
+            predicates.add(buildAgePredicate(root, criteriaBuilder, criteria.age()));
+            predicates.add(buildPositionPredicate(root, criteriaBuilder, criteria.position()));
+            predicates.add(buildDepartmentPredicate(root, criteriaBuilder, criteria.department()));
+            predicates.add(buildBatchPredicate(root, criteriaBuilder, criteria.batchId()));
             predicates.removeIf(Objects::isNull);
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        }, pageable);
-        log.info("Found {} records matching criteria and in this page is {} records", result.getTotalElements(), result.getContent().size());
-        return result;
+        };
+    }
+
+    private List<Record> findAfter(Specification<Record> specification, Long afterId, int limit, String queryName, QueryShape shape) {
+        Specification<Record> afterSpecification = (root, query, criteriaBuilder) ->
+                afterId == null ? null : criteriaBuilder.greaterThan(root.get("id"), afterId);
+        return queryMetrics.time(queryName, shape, () -> recordRepository.findBy(specification.and(afterSpecification),
+                query -> query.sortBy(Sort.by("id")).limit(limit).all()));
     }
 
 
@@ -125,44 +916,87 @@ public class RecordServiceImpl implements RecordService {
         return null;
     }
 
+    private Predicate buildBatchPredicate(Root<Record> root, CriteriaBuilder criteriaBuilder, Long batchId) {
+        if (batchId != null) {
+            return criteriaBuilder.equal(root.get("batchId"), batchId);
+        }
+        return null;
+    }
+
     private Predicate buildPositionPredicate(Root<Record> root, CriteriaBuilder criteriaBuilder, String position) {
         if (position != null && !position.isEmpty()) {
-            return criteriaBuilder.equal(root.get("position"), position);
+            return buildDictionaryInPredicate(root.get("position"), criteriaBuilder, recordDictionaries.positions().findValuesEqualTo(position));
         }
         return null;
     }
 
     private Predicate buildDepartmentPredicate(Root<Record> root, CriteriaBuilder criteriaBuilder, String department) {
         if (department != null && !department.isEmpty()) {
-            return criteriaBuilder.equal(root.get("department"), department);
+            return buildDictionaryInPredicate(root.get("department"), criteriaBuilder, recordDictionaries.departments().findValuesEqualTo(department));
         }
         return null;
     }
 
+    private Predicate buildDictionaryInPredicate(Expression<?> attribute, CriteriaBuilder criteriaBuilder, List<String> values) {
+        return values.isEmpty() ? criteriaBuilder.disjunction() : attribute.in(values);
+    }
+
     @Override
-    public Page<Record> getAllRecordsByText(String text, int pageNum, int pageSize) {
+    @Transactional(readOnly = true)
+    public Page<RecordDTO> getAllRecordsByText(String text, int pageNum, int pageSize) {
         log.info("Entering getAllRecordsByText with parameters - text: {}, pageNum: {}, pageSize: {}",
                 text, pageNum, pageSize);
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize,
                 Sort.by("id"));
-        Page<Record> result = recordRepository.findAll((root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(buildFullTextPredicate(root, criteriaBuilder, text));
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        }, pageable);
+        Optional<long[]> candidateIds = trigramIndex.findCandidateIds(text);
+        if (candidateIds.isPresent() && candidateIds.get().length == 0) {
+            log.info("Text index has no candidates for text: {}", text);
+            return Page.empty(pageable);
+        }
+        Page<RecordDTO> result = recordRepository.findAllAsDto(buildFullTextSpecification(text, candidateIds), pageable,
+                "text", QueryShape.ofText(text, candidateIds.isPresent()));
         log.info("Found {} records matching criteria and in this page is {} records", result.getTotalElements(), result.getContent().size());
         return result;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Record> getRecordsByTextAfter(String text, Long afterId, int limit) {
+        log.info("Entering getRecordsByTextAfter with parameters - text: {}, afterId: {}, limit: {}", text, afterId, limit);
+        Optional<long[]> candidateIds = trigramIndex.findCandidateIds(text);
+        if (candidateIds.isPresent() && candidateIds.get().length == 0) {
+            log.info("Text index has no candidates for text: {}", text);
+            return List.of();
+        }
+        List<Record> result = findAfter(buildFullTextSpecification(text, candidateIds), afterId, limit,
+                "text.cursor", QueryShape.ofText(text, candidateIds.isPresent()));
+        log.info("Found {} records matching text after id {}", result.size(), afterId);
+        return result;
+    }
+
+    private Specification<Record> buildFullTextSpecification(String text, Optional<long[]> candidateIds) {
+        Specification<Record> specification = (root, query, criteriaBuilder) -> buildFullTextPredicate(root, criteriaBuilder, text);
+        return candidateIds
+                .map(ids -> specification.and((root, query, criteriaBuilder) ->
+                        root.get("id").in(Arrays.stream(ids).boxed().toList())))
+                .orElse(specification);
+    }
+
     private Predicate buildFullTextPredicate(Root<Record> root, CriteriaBuilder criteriaBuilder, String text) {
         if (text != null && !text.isEmpty()) {
             String lowerText = "%" + text.toLowerCase() + "%";
             return criteriaBuilder.or(
                     criteriaBuilder.like(criteriaBuilder.lower(root.get("fullName")), lowerText),
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("position")), lowerText),
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("department")), lowerText)
+                    buildDictionaryInPredicate(root.get("position"), criteriaBuilder, recordDictionaries.positions().findValuesContaining(text)),
+                    buildDictionaryInPredicate(root.get("department"), criteriaBuilder, recordDictionaries.departments().findValuesContaining(text))
             );
         }
         return null;
     }
+
+    private record SpooledUpload(Path path, String fingerprint) {
+    }
+
+    private record DeletedChunk(int selected, int deleted) {
+    }
 }
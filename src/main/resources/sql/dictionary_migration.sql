@@ -0,0 +1,52 @@
+-- Moves an existing Record table to dictionary-encoded position and department columns.
+-- Run once with the old version stopped, before the new version starts. ddl-auto only adds columns, so a new version
+-- started first leaves the old NOT NULL columns in place and fails every insert; running this script then fixes it:
+-- the old columns are made nullable before anything else and rows the new version already wrote keep their ids.
+USE HackenTaskDB;
+
+ALTER TABLE record
+    MODIFY position VARCHAR(255) NULL,
+    MODIFY department VARCHAR(255) NULL;
+
+CREATE TABLE IF NOT EXISTS position_dictionary (
+    id        INT AUTO_INCREMENT PRIMARY KEY,
+    name      VARCHAR(255) NOT NULL,
+    name_hash VARBINARY(32),
+    CONSTRAINT uk_position_dictionary_name_hash UNIQUE (name_hash)
+);
+
+CREATE TABLE IF NOT EXISTS department_dictionary (
+    id        INT AUTO_INCREMENT PRIMARY KEY,
+    name      VARCHAR(255) NOT NULL,
+    name_hash VARBINARY(32),
+    CONSTRAINT uk_department_dictionary_name_hash UNIQUE (name_hash)
+);
+
+INSERT INTO position_dictionary (name, name_hash)
+SELECT DISTINCT position, UNHEX(SHA2(position, 256)) FROM record WHERE position IS NOT NULL
+ON DUPLICATE KEY UPDATE name_hash = name_hash;
+INSERT INTO department_dictionary (name, name_hash)
+SELECT DISTINCT department, UNHEX(SHA2(department, 256)) FROM record WHERE department IS NOT NULL
+ON DUPLICATE KEY UPDATE name_hash = name_hash;
+
+-- The id columns already exist when the new version has been started against this table.
+SET @add_id_columns = IF((SELECT COUNT(*) FROM information_schema.columns
+                          WHERE table_schema = DATABASE() AND LOWER(table_name) = 'record' AND column_name = 'position_id') = 0,
+                         'ALTER TABLE record ADD COLUMN position_id INT, ADD COLUMN department_id INT',
+                         'DO 0');
+PREPARE add_id_columns FROM @add_id_columns;
+EXECUTE add_id_columns;
+DEALLOCATE PREPARE add_id_columns;
+
+UPDATE record r JOIN position_dictionary p ON p.name_hash = UNHEX(SHA2(r.position, 256))
+SET r.position_id = p.id
+WHERE r.position IS NOT NULL;
+UPDATE record r JOIN department_dictionary d ON d.name_hash = UNHEX(SHA2(r.department, 256))
+SET r.department_id = d.id
+WHERE r.department IS NOT NULL;
+
+ALTER TABLE record
+    MODIFY position_id INT NOT NULL,
+    MODIFY department_id INT NOT NULL,
+    DROP COLUMN position,
+    DROP COLUMN department;
@@ -0,0 +1,28 @@
+-- Adds the unique name_hash to the dictionary tables of an existing database, merging values inserted twice.
+-- Run once with the application stopped, before starting the version that writes name_hash.
+USE HackenTaskDB;
+
+UPDATE record r
+    JOIN position_dictionary p ON p.id = r.position_id
+    JOIN (SELECT MIN(id) AS id, BINARY name AS name FROM position_dictionary GROUP BY BINARY name) k ON k.name = BINARY p.name
+SET r.position_id = k.id
+WHERE r.position_id <> k.id;
+DELETE p FROM position_dictionary p
+    JOIN position_dictionary k ON BINARY k.name = BINARY p.name AND k.id < p.id;
+
+UPDATE record r
+    JOIN department_dictionary d ON d.id = r.department_id
+    JOIN (SELECT MIN(id) AS id, BINARY name AS name FROM department_dictionary GROUP BY BINARY name) k ON k.name = BINARY d.name
+SET r.department_id = k.id
+WHERE r.department_id <> k.id;
+DELETE d FROM department_dictionary d
+    JOIN department_dictionary k ON BINARY k.name = BINARY d.name AND k.id < d.id;
+
+ALTER TABLE position_dictionary ADD COLUMN name_hash VARBINARY(32);
+ALTER TABLE department_dictionary ADD COLUMN name_hash VARBINARY(32);
+
+UPDATE position_dictionary SET name_hash = UNHEX(SHA2(name, 256)) WHERE name_hash IS NULL;
+UPDATE department_dictionary SET name_hash = UNHEX(SHA2(name, 256)) WHERE name_hash IS NULL;
+
+ALTER TABLE position_dictionary ADD CONSTRAINT uk_position_dictionary_name_hash UNIQUE (name_hash);
+ALTER TABLE department_dictionary ADD CONSTRAINT uk_department_dictionary_name_hash UNIQUE (name_hash);
@@ -0,0 +1,10 @@
+-- Seeds the replica database of the replica-local profile: every table is a read-only link to the same table in
+-- the primary database, so the replica is a separate database that always sees the primary's committed rows.
+-- Run on every new replica connection; the tables must already have been created on the primary.
+CREATE LINKED TABLE IF NOT EXISTS Record('org.h2.Driver', 'jdbc:h2:mem:records', 'sa', '', 'RECORD') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS position_dictionary('org.h2.Driver', 'jdbc:h2:mem:records', 'sa', '', 'POSITION_DICTIONARY') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS department_dictionary('org.h2.Driver', 'jdbc:h2:mem:records', 'sa', '', 'DEPARTMENT_DICTIONARY') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS upload_batch('org.h2.Driver', 'jdbc:h2:mem:records', 'sa', '', 'UPLOAD_BATCH') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS upload_fingerprint('org.h2.Driver', 'jdbc:h2:mem:records', 'sa', '', 'UPLOAD_FINGERPRINT') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS upload_checkpoint('org.h2.Driver', 'jdbc:h2:mem:records', 'sa', '', 'UPLOAD_CHECKPOINT') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS upload_row_error('org.h2.Driver', 'jdbc:h2:mem:records', 'sa', '', 'UPLOAD_ROW_ERROR') READONLY;
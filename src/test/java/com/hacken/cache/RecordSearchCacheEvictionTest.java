@@ -0,0 +1,94 @@
+package com.hacken.cache;
+
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.service.RecordService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("consistency")
+class RecordSearchCacheEvictionTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private RecordSearchCache searchCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void uploadAndDeleteEvictPagesCachedByPosition() {
+        String position = "Cached " + UUID.randomUUID();
+        RecordCriteriaDTO criteria = new RecordCriteriaDTO(null, null, position, null);
+        long deletedBatch = upload("Ann", position, 3);
+        assertThat(search(criteria)).isEqualTo(databasePage("p.name = ?", position));
+        assertThat(searchCache.find(criteria, 1, PAGE_SIZE)).isPresent();
+
+        upload("Bob", position, 4);
+        assertThat(search(criteria)).isEqualTo(databasePage("p.name = ?", position)).hasSize(7);
+
+        recordService.deleteUploadBatch(deletedBatch);
+        assertThat(search(criteria)).isEqualTo(databasePage("p.name = ?", position)).hasSize(4);
+    }
+
+    @Test
+    void uploadAndDeleteEvictPagesCachedByFullName() {
+        String fullName = "Cached " + UUID.randomUUID();
+        RecordCriteriaDTO criteria = new RecordCriteriaDTO(fullName, null, null, null);
+        long deletedBatch = upload(fullName, "QA", 2);
+        assertThat(search(criteria)).isEqualTo(databasePage("r.full_name = ?", fullName));
+        assertThat(searchCache.find(criteria, 1, PAGE_SIZE)).isPresent();
+
+        upload(fullName, "Dev", 3);
+        assertThat(search(criteria)).isEqualTo(databasePage("r.full_name = ?", fullName)).hasSize(5);
+
+        recordService.deleteUploadBatch(deletedBatch);
+        assertThat(search(criteria)).isEqualTo(databasePage("r.full_name = ?", fullName)).hasSize(3);
+    }
+
+    /**
+     * Uploads {@code rows} rows with distinct ages, so the pages tell the rows apart.
+     */
+    private long upload(String fullName, String position, int rows) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append(fullName).append(',').append(20 + i).append(',').append(position).append(",IT\n");
+        }
+        return recordService.saveCsvData(new MockMultipartFile("file", "records.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8)), ',');
+    }
+
+    private List<RecordDTO> search(RecordCriteriaDTO criteria) {
+        Page<RecordDTO> page = recordService.getAllRecordsByCriteria(criteria.fullName(), criteria.age(), criteria.position(),
+                criteria.department(), null, 1, PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(page.getContent().size());
+        return page.getContent();
+    }
+
+    private List<RecordDTO> databasePage(String condition, String value) {
+        return jdbcTemplate.query("""
+                SELECT r.full_name, r.age, p.name AS position, d.name AS department FROM record r
+                JOIN position_dictionary p ON p.id = r.position_id
+                JOIN department_dictionary d ON d.id = r.department_id
+                WHERE %s ORDER BY r.id LIMIT %d""".formatted(condition, PAGE_SIZE),
+                (rs, rowNum) -> new RecordDTO(rs.getString("full_name"), rs.getInt("age"), rs.getString("position"),
+                        rs.getString("department")),
+                value);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hacken.cache;
+
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.event.RecordCell;
+import com.hacken.event.RecordIdRange;
+import com.hacken.event.RecordsPersistedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordSearchCacheTest {
+
+    private final RecordSearchCache cache = new RecordSearchCache(new RecordSearchProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void criteriaEqualUnderTheCollationShareOneEntry() {
+        Page<RecordDTO> page = new PageImpl<>(List.of(new RecordDTO("José", 20, "QA", "IT")));
+        cache.get(new RecordCriteriaDTO("JOSÉ", null, "Qa", null), 0, 10, () -> page);
+
+        assertThat(cache.find(new RecordCriteriaDTO("jose", null, "qa", null), 0, 10)).containsSame(page);
+    }
+
+    @Test
+    void uploadsEvictOnlyTheFullNameFiltersInTheirHashBucket() {
+        String otherBucketName = IntStream.range(0, 1000).mapToObj(i -> "Name " + i)
+                .filter(name -> RecordCell.fullNameHash(name) != RecordCell.fullNameHash("Ann"))
+                .findFirst()
+                .orElseThrow();
+        RecordCriteriaDTO ann = new RecordCriteriaDTO("ann", null, null, null);
+        RecordCriteriaDTO other = new RecordCriteriaDTO(otherBucketName, null, null, null);
+        RecordCriteriaDTO everything = new RecordCriteriaDTO(null, null, null, null);
+        for (RecordCriteriaDTO criteria : List.of(ann, other, everything)) {
+            cache.get(criteria, 0, 10, () -> new PageImpl<>(List.of()));
+        }
+
+        cache.onRecordsPersisted(new RecordsPersistedEvent(List.of(new RecordIdRange(1, 1, 1, 1)),
+                Map.of(new RecordCell(1, 20, "QA", "IT", RecordCell.fullNameHash("ANN")), 1L)));
+
+        assertThat(cache.find(ann, 0, 10)).isEmpty();
+        assertThat(cache.find(everything, 0, 10)).isEmpty();
+        assertThat(cache.find(other, 0, 10)).isPresent();
+    }
+}
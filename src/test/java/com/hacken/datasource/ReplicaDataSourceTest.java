@@ -0,0 +1,160 @@
+package com.hacken.datasource;
+
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.facet.RecordFacetIndex;
+import com.hacken.index.RecordTrigramIndex;
+import com.hacken.service.RecordService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = "records.datasource.primary-read-window=1s")
+@ActiveProfiles("replica-local")
+class ReplicaDataSourceTest {
+
+    private static final String PRIMARY = "RECORDS";
+
+    private static final String REPLICA = "RECORDS-REPLICA";
+
+    private static final Duration PRIMARY_READ_WINDOW = Duration.ofSeconds(1);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecordTrigramIndex trigramIndex;
+
+    @Autowired
+    private RecordFacetIndex facetIndex;
+
+    /**
+     * Waits until the indexes have been seeded, so their read-only queries are not counted as the test's reads.
+     */
+    @BeforeEach
+    void waitForIndexes() {
+        await().atMost(Duration.ofSeconds(10)).until(() -> trigramIndex.findCandidateIds("ann"), Optional::isPresent);
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> facetIndex.findFacets(new RecordCriteriaDTO(null, null, null, null)), Optional::isPresent);
+    }
+
+    @Test
+    void readOnlyTransactionsAreServedByTheReplica() {
+        double replicaReads = reads("replica-1");
+
+        assertThat(database(true)).isEqualTo(REPLICA);
+        assertThat(reads("replica-1")).isEqualTo(replicaReads + 1);
+    }
+
+    @Test
+    void writesAreServedByThePrimary() {
+        assertThat(database(false)).isEqualTo(PRIMARY);
+
+        long batchId = upload();
+
+        assertThat(count(batchId, false)).isEqualTo(2);
+    }
+
+    @Test
+    void readsGoToThePrimaryForTheWindowAfterAWrite() throws InterruptedException {
+        long batchId = upload();
+        double afterWriteReads = reads("primary-after-write");
+
+        assertThat(database(true)).isEqualTo(PRIMARY);
+        assertThat(reads("primary-after-write")).isEqualTo(afterWriteReads + 1);
+
+        Thread.sleep(PRIMARY_READ_WINDOW.plusMillis(200).toMillis());
+        assertThat(database(true)).isEqualTo(REPLICA);
+        assertThat(count(batchId, true)).isEqualTo(2);
+    }
+
+    @Test
+    void deadReplicaFallsBackToThePrimary() throws SQLException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HikariDataSource deadReplica = new HikariDataSource();
+        deadReplica.setPoolName("replica-1");
+        deadReplica.setJdbcUrl("jdbc:h2:mem:missing-replica;IFEXISTS=TRUE");
+        deadReplica.setConnectionTimeout(250);
+        deadReplica.setInitializationFailTimeout(-1);
+        ReplicaDataSource replicaDataSource = new ReplicaDataSource(List.of(deadReplica), primaryDataSource,
+                Duration.ofMinutes(1), Duration.ZERO, registry);
+        try {
+            assertThat(database(replicaDataSource)).isEqualTo(PRIMARY);
+
+            long start = System.nanoTime();
+            assertThat(database(replicaDataSource)).isEqualTo(PRIMARY);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(250));
+
+            assertThat(registry.get("records.datasource.reads").tag("route", "primary-fallback").counter().count())
+                    .isEqualTo(2);
+            assertThat(registry.get("records.datasource.reads").tag("route", "replica-1").counter().count())
+                    .isZero();
+        } finally {
+            replicaDataSource.destroy();
+        }
+    }
+
+    private long upload() {
+        String csv = "Ann " + UUID.randomUUID() + ",20,QA,IT\nBob,30,Dev,Ops\n";
+        return recordService.saveCsvData(new MockMultipartFile("file", "records.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)), ',');
+    }
+
+    private String database(boolean readOnly) {
+        return transaction(readOnly).execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private Long count(long batchId, boolean readOnly) {
+        return transaction(readOnly).execute(status -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM record WHERE batch_id = ?", Long.class, batchId));
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private static String database(ReplicaDataSource replicaDataSource) throws SQLException {
+        try (Connection connection = replicaDataSource.getConnection();
+             ResultSet rs = connection.createStatement().executeQuery("SELECT DATABASE()")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private double reads(String route) {
+        return meterRegistry.get("records.datasource.reads").tag("route", route).counter().count();
+    }
+}
@@ -0,0 +1,90 @@
+package com.hacken.facet;
+
+import com.hacken.config.RecordSearchProperties;
+import com.hacken.dictionary.RecordDictionaries;
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordFacetsDTO;
+import com.hacken.repository.RecordJdbcRepository;
+import com.hacken.service.RecordService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("consistency")
+class RecordFacetIndexTest {
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private RecordFacetIndex facetIndex;
+
+    @Autowired
+    private RecordJdbcRepository recordJdbcRepository;
+
+    @Autowired
+    private RecordDictionaries recordDictionaries;
+
+    @Autowired
+    private RecordSearchProperties searchProperties;
+
+    @Test
+    void uploadAndDeleteLeaveFacetCountsEqualToTheDatabase() {
+        String department = "Facets " + UUID.randomUUID();
+        indexFacets(new RecordCriteriaDTO(null, null, null, null));
+        long deletedBatch = upload(department, "Gone", 9);
+        upload(department, "Kept", 7);
+
+        recordService.deleteUploadBatch(deletedBatch);
+
+        RecordFacetsDTO facets = indexFacets(new RecordCriteriaDTO(null, null, null, department));
+        assertThat(facets).isEqualTo(databaseFacets(new RecordCriteriaDTO(null, null, null, department)));
+        assertThat(facets.total()).isEqualTo(7);
+        assertThat(facets.positions()).isEqualTo(Map.of("Kept", 7L));
+        assertThat(indexFacets(new RecordCriteriaDTO(null, 21, "Kept", department)))
+                .isEqualTo(databaseFacets(new RecordCriteriaDTO(null, 21, "Kept", department)));
+        assertThat(indexFacets(new RecordCriteriaDTO(null, null, "Gone", department)).total()).isZero();
+        assertThat(indexFacets(new RecordCriteriaDTO(null, null, null, null)))
+                .isEqualTo(databaseFacets(new RecordCriteriaDTO(null, null, null, null)));
+    }
+
+    /**
+     * Uploads {@code rows} rows spread over three ages and two age buckets.
+     */
+    private long upload(String department, String position, int rows) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append("Ann ").append(position).append(i).append(',').append(new int[]{21, 25, 34}[i % 3]).append(',')
+                    .append(position).append(',').append(department).append('\n');
+        }
+        return recordService.saveCsvData(new MockMultipartFile("file", "records.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8)), ',');
+    }
+
+    /**
+     * Waits until the index has been seeded; committed changes are applied to it before the commit returns.
+     */
+    private RecordFacetsDTO indexFacets(RecordCriteriaDTO criteria) {
+        return await().atMost(Duration.ofSeconds(10))
+                .until(() -> facetIndex.findFacets(criteria), Optional::isPresent)
+                .get();
+    }
+
+    private RecordFacetsDTO databaseFacets(RecordCriteriaDTO criteria) {
+        FacetCounts facetCounts = new FacetCounts(searchProperties.getFacets().getAgeBucketSize());
+        recordJdbcRepository.countByFacetCell(criteria, null, facetCounts);
+        return facetCounts.toDto(recordDictionaries);
+    }
+}
@@ -0,0 +1,166 @@
+package com.hacken.index;
+
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import com.hacken.event.RecordChangeCollector;
+import com.hacken.mapper.RecordMapperUtil;
+import com.hacken.model.Record;
+import com.hacken.repository.RecordJdbcRepository;
+import com.hacken.repository.UploadBatchRepository;
+import com.hacken.service.RecordService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:consistency-columnar;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "records.search.columnar.enabled=true"
+})
+@ActiveProfiles("consistency")
+class ColumnarRecordSnapshotTest {
+
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private ColumnarRecordSnapshot columnarSnapshot;
+
+    @Autowired
+    private RecordJdbcRepository recordJdbcRepository;
+
+    @Autowired
+    private UploadBatchRepository uploadBatchRepository;
+
+    @Autowired
+    private RecordChangeCollector recordChangeCollector;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void uploadAndDeleteLeaveEveryPageEqualToTheDatabase() {
+        String department = "Columnar " + UUID.randomUUID();
+        snapshotPage(new RecordCriteriaDTO(null, null, null, null), 0);
+        long deletedBatch = upload(department, "Gone", 9);
+        upload(department, "Kept", 7);
+
+        recordService.deleteUploadBatch(deletedBatch);
+
+        assertMatchesDatabase(new RecordCriteriaDTO(null, null, null, department), 7);
+        assertMatchesDatabase(new RecordCriteriaDTO(null, null, "Kept", department.toUpperCase()), 7);
+        assertMatchesDatabase(new RecordCriteriaDTO(null, null, "Gone", department), 0);
+        assertMatchesDatabase(new RecordCriteriaDTO(null, 31, null, department), 2);
+        assertMatchesDatabase(new RecordCriteriaDTO("Kept 2", null, null, department), 1);
+        assertMatchesDatabase(new RecordCriteriaDTO(null, null, null, null), -1);
+    }
+
+    /**
+     * A transaction that inserted lower ids commits after one with higher ids, so its rows are merged into the tail.
+     * Deleting them afterwards marks rows in the middle of the snapshot as deleted.
+     */
+    @Test
+    void commitsOutOfIdOrderAreMergedIntoTheTail() throws Exception {
+        String department = "Columnar " + UUID.randomUUID();
+        RecordCriteriaDTO criteria = new RecordCriteriaDTO(null, null, null, department);
+        snapshotPage(criteria, 0);
+        long earlyBatch = uploadBatchRepository.create();
+        long lateBatch = uploadBatchRepository.create();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Record>> early = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            List<Record> records = insert(earlyBatch, department, "Early", 6);
+            inserted.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return records;
+        }));
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+        List<Record> late = transactionTemplate.execute(status -> insert(lateBatch, department, "Late", 5));
+        release.countDown();
+        assertThat(early.get(10, TimeUnit.SECONDS).get(5).getId()).isLessThan(late.get(0).getId());
+
+        assertMatchesDatabase(criteria, 11);
+        assertMatchesDatabase(new RecordCriteriaDTO(null, null, "Early", department), 6);
+
+        recordService.deleteUploadBatch(earlyBatch);
+        assertMatchesDatabase(criteria, 5);
+
+        upload(department, "Next", 3);
+        assertMatchesDatabase(criteria, 8);
+        assertMatchesDatabase(new RecordCriteriaDTO(null, null, "Late", department), 5);
+    }
+
+    private long upload(String department, String position, int rows) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append(position).append(' ').append(i).append(',').append(30 + i % 4).append(',')
+                    .append(position).append(',').append(department).append('\n');
+        }
+        return recordService.saveCsvData(new MockMultipartFile("file", "records.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8)), ',');
+    }
+
+    private List<Record> insert(long batchId, String department, String position, int rows) {
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Record record = new Record(null, position + " " + i, 30 + i % 4, position, department);
+            record.setBatchId(batchId);
+            records.add(record);
+        }
+        recordJdbcRepository.batchInsert(records);
+        recordChangeCollector.persisted(batchId, records);
+        return records;
+    }
+
+    /**
+     * Compares every page of the snapshot, plus the empty one after the last, with the rows read from the database.
+     * A negative {@code expectedRows} skips the row count check.
+     */
+    private void assertMatchesDatabase(RecordCriteriaDTO criteria, int expectedRows) {
+        List<RecordDTO> expected = new ArrayList<>();
+        recordJdbcRepository.streamByCriteria(criteria, 100, record -> expected.add(RecordMapperUtil.toRecordDto(record)));
+        if (expectedRows >= 0) {
+            assertThat(expected).hasSize(expectedRows);
+        }
+        for (int pageNum = 0; pageNum * PAGE_SIZE <= expected.size(); pageNum++) {
+            Page<RecordDTO> page = snapshotPage(criteria, pageNum);
+            int from = pageNum * PAGE_SIZE;
+            assertThat(page.getTotalElements()).isEqualTo(expected.size());
+            assertThat(page.getContent()).isEqualTo(expected.subList(from, Math.min(from + PAGE_SIZE, expected.size())));
+        }
+    }
+
+    /**
+     * Waits until the snapshot is loaded and has applied every committed change, which is when it answers again.
+     */
+    private Page<RecordDTO> snapshotPage(RecordCriteriaDTO criteria, int pageNum) {
+        return await().atMost(Duration.ofSeconds(10))
+                .until(() -> columnarSnapshot.findPage(criteria, PageRequest.of(pageNum, PAGE_SIZE, Sort.by("id"))),
+                        Optional::isPresent)
+                .get();
+    }
+}
@@ -0,0 +1,51 @@
+package com.hacken.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void behavesLikeAHashMapUnderRandomInsertsAndRemovals() {
+        Random random = new Random(42);
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) * 0x1_0000_0000L + random.nextInt(3);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                String value = "v" + key;
+                assertThat(map.computeIfAbsent(key, k -> value)).isEqualTo(expected.computeIfAbsent(key, k -> value));
+            }
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, String> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertThat(entries).isEqualTo(expected);
+        for (long key : expected.keySet()) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void keepsZeroAndNegativeKeys() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.computeIfAbsent(0, k -> "zero");
+        map.computeIfAbsent(-1, k -> "minus one");
+        map.computeIfAbsent(Long.MIN_VALUE, k -> "min");
+
+        assertThat(map.get(0)).isEqualTo("zero");
+        assertThat(map.remove(-1)).isEqualTo("minus one");
+        assertThat(map.get(-1)).isNull();
+        assertThat(map.get(Long.MIN_VALUE)).isEqualTo("min");
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.get(0)).isNull();
+    }
+}
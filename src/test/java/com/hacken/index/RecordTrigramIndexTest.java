@@ -0,0 +1,80 @@
+package com.hacken.index;
+
+import com.hacken.service.RecordService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("consistency")
+class RecordTrigramIndexTest {
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private RecordTrigramIndex trigramIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void uploadAndDeleteLeaveTheIndexEqualToTheDatabase() {
+        String tag = "zq" + UUID.randomUUID().toString().substring(0, 8);
+        candidateIds(tag);
+        long deletedBatch = upload(tag, "Gone" + tag, "IT", 7);
+        upload(tag, "QA", "Kept" + tag, 6);
+
+        recordService.deleteUploadBatch(deletedBatch);
+
+        assertThat(candidateIds(tag)).hasSize(6).isEqualTo(idsContaining(tag));
+        assertThat(candidateIds(tag.toUpperCase(Locale.ROOT))).isEqualTo(idsContaining(tag));
+        assertThat(candidateIds("kept" + tag)).hasSize(6).isEqualTo(idsContaining("kept" + tag));
+        assertThat(candidateIds("gone" + tag)).isEmpty();
+        assertThat(idsContaining("gone" + tag)).isEmpty();
+    }
+
+    private long upload(String tag, String position, String department, int rows) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append("Ann ").append(tag).append(' ').append(position).append(i)
+                    .append(',').append(20 + i).append(',').append(position).append(',').append(department).append('\n');
+        }
+        return recordService.saveCsvData(new MockMultipartFile("file", "records.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8)), ',');
+    }
+
+    /**
+     * Waits until the index has applied every committed change, which is when it answers again.
+     */
+    private List<Long> candidateIds(String text) {
+        long[] ids = await().atMost(Duration.ofSeconds(10))
+                .until(() -> trigramIndex.findCandidateIds(text), Optional::isPresent)
+                .get();
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private List<Long> idsContaining(String text) {
+        String pattern = "%" + text.toLowerCase(Locale.ROOT) + "%";
+        return jdbcTemplate.queryForList("""
+                SELECT r.id FROM record r
+                JOIN position_dictionary p ON p.id = r.position_id
+                JOIN department_dictionary d ON d.id = r.department_id
+                WHERE LOWER(r.full_name) LIKE ? OR LOWER(p.name) LIKE ? OR LOWER(d.name) LIKE ?
+                ORDER BY r.id""", Long.class, pattern, pattern, pattern);
+    }
+}
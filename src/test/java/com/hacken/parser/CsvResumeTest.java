@@ -0,0 +1,66 @@
+package com.hacken.parser;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvResumeTest {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.Builder.create().setDelimiter(',').build();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Ann,20,QA,IT\nBob,30,Dev,Ops\nCid,40,PM,HR\n",
+            "Ann,20,QA,IT\r\nBob,30,Dev,Ops\r\nCid,40,PM,HR\r\n",
+            "Ann,20,QA,IT\r\nBob,30,Dev,Ops\nCid,40,PM,HR",
+            "\"Ann\nLee\",20,QA,IT\r\n\"Bob\r\nRay\",30,\"Dev, Ops\",Ops\r\nCid,40,PM,HR\r\n",
+            "\"Ann \"\"Jr\"\"\",20,QA,IT\n\n\"Bob\n\n\",30,Dev,\"O\r\nps\"\nCid,40,PM,HR\n",
+            "José Ñúñez,20,QA,IT\r\n\"Straße\r\n\",30,Dev,Ops\r\n"
+    })
+    void resumesAtEveryRowWithTheSameRows(String csv) throws IOException {
+        List<CSVRecord> rows = parse(new CSVParser(new StringReader(csv), CSV_FORMAT));
+
+        for (CSVRecord checkpointRow : rows) {
+            long charOffset = checkpointRow.getCharacterPosition();
+            long rowOffset = checkpointRow.getRecordNumber() - 1;
+            List<CSVRecord> resumed = parse(CsvResume.open(new StringReader(csv), CSV_FORMAT, charOffset, rowOffset));
+
+            List<CSVRecord> expected = rows.subList((int) rowOffset, rows.size());
+            assertThat(resumed).extracting(CSVRecord::toList)
+                    .containsExactlyElementsOf(expected.stream().map(CSVRecord::toList).toList());
+            assertThat(resumed).extracting(CSVRecord::getRecordNumber)
+                    .containsExactlyElementsOf(expected.stream().map(CSVRecord::getRecordNumber).toList());
+            assertThat(resumed).extracting(CSVRecord::getCharacterPosition)
+                    .containsExactlyElementsOf(expected.stream().map(CSVRecord::getCharacterPosition).toList());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Ann,20,QA,IT\n", "Ann,20,QA,IT\r\n"})
+    void resumesAtTheEndWithNoRows(String csv) throws IOException {
+        assertThat(parse(CsvResume.open(new StringReader(csv), CSV_FORMAT, csv.length(), 1))).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {14, 100})
+    void rejectsAnOffsetBeyondTheEndOfTheFile(long charOffset) {
+        assertThatThrownBy(() -> CsvResume.open(new StringReader("Ann,20,QA,IT\n"), CSV_FORMAT, charOffset, 1))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static List<CSVRecord> parse(CSVParser parser) throws IOException {
+        try (parser) {
+            return new ArrayList<>(parser.getRecords());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.hacken.parser;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvSegmentSplitterTest {
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.Builder.create().setDelimiter(',').build();
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @TempDir
+    Path tempDir;
+
+    @AfterAll
+    static void shutdownPool() {
+        POOL.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Ann,20,QA,IT\nBob,30,Dev,Ops\nCid,40,PM,HR\n",
+            "Ann,20,QA,IT\r\nBob,30,Dev,Ops\r\nCid,40,PM,HR\r\n",
+            "Ann,20,QA,IT\rBob,30,Dev,Ops\rCid,40,PM,HR\r",
+            "Ann,20,QA,IT\r\"Bob\nRay\",30,Dev,Ops\r\"Cid\r\n\",40,PM,HR",
+            "\"Ann\nLee\",20,QA,IT\n\"Bob\"\"\n\"\"Ray\",30,\"Dev,\nOps\",Ops\n\nCid,40,PM,\"H\rR\"\n",
+            "Ann \"Jr,20,QA,IT\nBob,30,Dev,Ops\n\"\"\"\",40,PM,HR\n",
+            "José Ñúñez,20,QA,IT\r\n\"Straße\r\n\",30,Dev,Ops\r\n"
+    })
+    void splitsOnRecordBoundariesOnly(String csv) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("records.csv"), csv, StandardCharsets.UTF_8);
+        byte[] bytes = Files.readAllBytes(file);
+        List<List<String>> expected = parse(csv);
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            for (long targetSize = 1; targetSize <= bytes.length; targetSize++) {
+                List<CsvSegment> segments = CsvSegmentSplitter.split(channel, (byte) ',', targetSize, POOL);
+
+                List<List<String>> rows = new ArrayList<>();
+                long position = 0;
+                for (CsvSegment segment : segments) {
+                    assertThat(segment.start()).isEqualTo(position);
+                    position += segment.length();
+                    rows.addAll(parse(new String(bytes, (int) segment.start(), (int) segment.length(), StandardCharsets.UTF_8)));
+                }
+                assertThat(position).isEqualTo(bytes.length);
+                assertThat(rows).as("target size %d", targetSize).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static List<List<String>> parse(String csv) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (CSVParser parser = new CSVParser(new StringReader(csv), CSV_FORMAT)) {
+            for (CSVRecord row : parser) {
+                rows.add(row.toList());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,108 @@
+package com.hacken.parser;
+
+import com.hacken.exception.CsvParsingException;
+import com.hacken.model.Record;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecordTokenizerTest {
+
+    @TempDir
+    Path tempDir;
+
+    static Stream<Arguments> csvFiles() {
+        return Stream.of(
+                Arguments.of("Ann,20,QA,IT\nBob,30,Dev,Ops\n", ','),
+                Arguments.of("Ann,20,QA,IT\r\nBob,30,Dev,Ops\r\n", ','),
+                Arguments.of("Ann,20,QA,IT\rBob,30,Dev,Ops\rCid,40,PM,HR", ','),
+                Arguments.of("Ann,20,QA,IT\r\nBob,30,Dev,Ops\nCid,40,PM,HR\r", ','),
+                Arguments.of("\"Ann\",20,\"QA\",\"IT\"\n\"Bob, Ray\",30,Dev,Ops\n", ','),
+                Arguments.of("\"Ann \"\"Jr\"\"\",20,QA,IT\n\"\"\"\",30,\"\",Ops\n", ','),
+                Arguments.of("\"Ann\nLee\",20,QA,IT\r\n\"Bob\r\nRay\",30,\"D\rev\",Ops\r\n", ','),
+                Arguments.of("\n\nAnn,20,QA,IT\n\r\n\r\rBob,30,Dev,Ops\n\n", ','),
+                Arguments.of("Ann,20,QA,IT,\nBob,30,Dev,Ops,,\nCid,40,PM,HR,extra\n", ','),
+                Arguments.of("Ann,20,QA,\nBob,-30,,Ops\n,+40,PM,HR\n", ','),
+                Arguments.of("\"Ann\" ,20,\"QA\"\t,IT\n", ','),
+                Arguments.of("José Ñúñez,20,QA,IT\nStraße,30,Dev,Ops\n", ','),
+                Arguments.of("Ann;20;QA;IT\r\n\"Bob;Ray\";30;Dev;Ops\r\n", ';'),
+                Arguments.of("Ann|20|QA|IT\n\"Bob|\"\"Ray\"\"\"|30|Dev|Ops|\n", '|'));
+    }
+
+    @ParameterizedTest
+    @MethodSource("csvFiles")
+    void readsTheSameRecordsAsCommonsCsv(String csv, char delimiter) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(fields(new RecordTokenizer(buffer, (byte) delimiter))).isEqualTo(parseWithCommonsCsv(csv, delimiter));
+    }
+
+    @ParameterizedTest
+    @MethodSource("csvFiles")
+    void readsTheSameRecordsAcrossWindows(String csv, char delimiter) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("records.csv"), csv, StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertThat(fields(RecordTokenizer.open(channel, (byte) delimiter, 40))).isEqualTo(parseWithCommonsCsv(csv, delimiter));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"Ann,20,QA,IT\n", "Ann,20,QA\n", "Ann,twenty,QA,IT\n", "\"Ann\"x,20,QA,IT\n"})
+    void rejectsMalformedRecords(String csv) {
+        RecordTokenizer tokenizer = new RecordTokenizer(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), (byte) ',');
+
+        assertThatThrownBy(tokenizer::next).isInstanceOfAny(CsvParsingException.class, NumberFormatException.class);
+    }
+
+    @Test
+    void rejectsARecordLongerThanTheWindow() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("records.csv"), "Ann,20,QA,IT\n" + "B".repeat(64) + ",30,Dev,Ops\n");
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            RecordTokenizer tokenizer = RecordTokenizer.open(channel, (byte) ',', 32);
+            tokenizer.next();
+            assertThatThrownBy(tokenizer::next).isInstanceOf(CsvParsingException.class);
+        }
+    }
+
+    private static List<List<Object>> parseWithCommonsCsv(String csv, char delimiter) throws IOException {
+        CSVFormat csvFormat = CSVFormat.Builder.create().setDelimiter(delimiter).build();
+        List<List<Object>> rows = new ArrayList<>();
+        try (CSVParser parser = new CSVParser(new StringReader(csv), csvFormat)) {
+            for (CSVRecord row : parser) {
+                rows.add(List.of(row.get(0), Integer.parseInt(row.get(1)), row.get(2), row.get(3)));
+            }
+        }
+        return rows;
+    }
+
+    private static List<List<Object>> fields(RecordTokenizer tokenizer) {
+        List<List<Object>> rows = new ArrayList<>();
+        while (tokenizer.hasNext()) {
+            Record record = tokenizer.next();
+            rows.add(List.of(record.getFullName(), record.getAge(), record.getPosition(), record.getDepartment()));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hacken.service;
+
+import com.hacken.dto.RecordCriteriaDTO;
+import com.hacken.dto.RecordDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("consistency")
+class RecordsByDepartmentsTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void groupedPagesEqualThePerDepartmentPagesAfterAnUploadAndADelete() {
+        String tag = UUID.randomUUID().toString();
+        String first = "Dept " + tag + " a";
+        String firstVariant = "DEPT " + tag + " A";
+        String second = "Dept " + tag + " b";
+        List<String> departments = List.of(first, second, "Dept " + tag + " c");
+        long deletedBatch = upload(Map.of(first, 5, firstVariant, 3, second, 4));
+        assertPagesMatch(departments, 12);
+
+        upload(Map.of(first, 4, second, 2));
+        assertPagesMatch(departments, 18);
+
+        recordService.deleteUploadBatch(deletedBatch);
+        assertPagesMatch(departments, 6);
+    }
+
+    /**
+     * The grouped query runs first on page 1 and the per-department queries first on page 2, so each is compared
+     * with pages it did not load into the search cache itself.
+     */
+    private void assertPagesMatch(List<String> departments, long expectedRows) {
+        Map<String, Page<RecordDTO>> firstPages = byDepartments(departments, 1);
+        assertEqualToDatabase(firstPages, 1);
+        assertEqualToDatabase(byCriteria(departments, 1), 1);
+        assertEqualToDatabase(byCriteria(departments, 2), 2);
+        assertEqualToDatabase(byDepartments(departments, 2), 2);
+        assertThat(firstPages.values().stream().mapToLong(Page::getTotalElements).sum()).isEqualTo(expectedRows);
+    }
+
+    private void assertEqualToDatabase(Map<String, Page<RecordDTO>> pages, int pageNum) {
+        pages.forEach((department, page) -> assertThat(page).as(department).isEqualTo(databasePage(department, pageNum)));
+    }
+
+    private Map<String, Page<RecordDTO>> byDepartments(List<String> departments, int pageNum) {
+        Map<String, Page<RecordDTO>> pages = recordService.getAllRecordsByDepartments(new RecordCriteriaDTO(null, null, null, null),
+                departments, pageNum, PAGE_SIZE);
+        assertThat(pages).containsOnlyKeys(departments);
+        return pages;
+    }
+
+    private Map<String, Page<RecordDTO>> byCriteria(List<String> departments, int pageNum) {
+        Map<String, Page<RecordDTO>> pages = new LinkedHashMap<>();
+        for (String department : departments) {
+            pages.put(department, recordService.getAllRecordsByCriteria(null, null, null, department, null, pageNum, PAGE_SIZE));
+        }
+        return pages;
+    }
+
+    private long upload(Map<String, Integer> rowsByDepartment) {
+        StringBuilder csv = new StringBuilder();
+        rowsByDepartment.forEach((department, rows) -> {
+            for (int i = 0; i < rows; i++) {
+                csv.append("Ann ").append(UUID.randomUUID()).append(',').append(20 + i).append(",QA,").append(department)
+                        .append('\n');
+            }
+        });
+        return recordService.saveCsvData(new MockMultipartFile("file", "records.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8)), ',');
+    }
+
+    private Page<RecordDTO> databasePage(String department, int pageNum) {
+        String departmentName = department.toLowerCase(Locale.ROOT);
+        List<RecordDTO> content = jdbcTemplate.query("""
+                SELECT r.full_name, r.age, p.name AS position, d.name AS department FROM record r
+                JOIN position_dictionary p ON p.id = r.position_id
+                JOIN department_dictionary d ON d.id = r.department_id
+                WHERE LOWER(d.name) = ? ORDER BY r.id LIMIT ? OFFSET ?""",
+                (rs, rowNum) -> new RecordDTO(rs.getString("full_name"), rs.getInt("age"), rs.getString("position"),
+                        rs.getString("department")),
+                departmentName, PAGE_SIZE, (pageNum - 1) * PAGE_SIZE);
+        Long total = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM record r JOIN department_dictionary d ON d.id = r.department_id
+                WHERE LOWER(d.name) = ?""", Long.class, departmentName);
+        return new PageImpl<>(content, PageRequest.of(pageNum - 1, PAGE_SIZE, Sort.by("id")), total);
+    }
+}
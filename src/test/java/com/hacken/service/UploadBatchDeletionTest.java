@@ -0,0 +1,104 @@
+package com.hacken.service;
+
+import com.hacken.dto.RecordDTO;
+import com.hacken.dto.UploadBatchDeletionDTO;
+import com.hacken.exception.UploadBatchNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("consistency")
+class UploadBatchDeletionTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletesOnlyTheBatchInRollbackChunks() {
+        String department = "Deleted " + UUID.randomUUID();
+        MockMultipartFile deletedFile = csv(department, "Gone", 8);
+        long deletedBatch = recordService.saveCsvData(deletedFile, ',');
+        long keptBatch = recordService.saveCsvData(csv(department, "Kept", 5), ',');
+        assertThat(search(department, null)).hasSize(13);
+
+        assertThat(recordService.deleteUploadBatch(deletedBatch)).isEqualTo(new UploadBatchDeletionDTO(deletedBatch, 8, 3));
+
+        assertThat(countRows(deletedBatch)).isZero();
+        assertThat(countRows(keptBatch)).isEqualTo(5);
+        assertThatThrownBy(() -> recordService.getUploadBatch(deletedBatch)).isInstanceOf(UploadBatchNotFoundException.class);
+        assertThatThrownBy(() -> recordService.deleteUploadBatch(deletedBatch)).isInstanceOf(UploadBatchNotFoundException.class);
+        assertThat(search(department, null)).isEqualTo(databaseRecords(department, null)).hasSize(5);
+        assertThat(search(department, deletedBatch)).isEmpty();
+        assertThat(search(department, keptBatch)).isEqualTo(databaseRecords(department, keptBatch));
+    }
+
+    @Test
+    void aBatchFillingWholeChunksTakesOneMoreEmptyChunk() {
+        String department = "Deleted " + UUID.randomUUID();
+        long batchId = recordService.saveCsvData(csv(department, "Even", 6), ',');
+
+        assertThat(recordService.deleteUploadBatch(batchId)).isEqualTo(new UploadBatchDeletionDTO(batchId, 6, 3));
+        assertThat(countRows(batchId)).isZero();
+    }
+
+    @Test
+    void aDeletedFileCanBeUploadedAgain() {
+        String department = "Deleted " + UUID.randomUUID();
+        MockMultipartFile file = csv(department, "Again", 4);
+        long deletedBatch = recordService.saveCsvData(file, ',');
+        recordService.deleteUploadBatch(deletedBatch);
+
+        long batchId = recordService.saveCsvData(file, ',');
+
+        assertThat(batchId).isNotEqualTo(deletedBatch);
+        assertThat(recordService.getUploadBatch(batchId).getRowCount()).isEqualTo(4);
+        assertThat(search(department, batchId)).isEqualTo(databaseRecords(department, batchId)).hasSize(4);
+    }
+
+    private static MockMultipartFile csv(String department, String position, int rows) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            csv.append(position).append(' ').append(i).append(',').append(20 + i).append(',').append(position).append(',')
+                    .append(department).append('\n');
+        }
+        return new MockMultipartFile("file", "records.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<RecordDTO> search(String department, Long batchId) {
+        Page<RecordDTO> page = recordService.getAllRecordsByCriteria(null, null, null, department, batchId, 1, PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(page.getContent().size());
+        return page.getContent();
+    }
+
+    private Long countRows(long batchId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM record WHERE batch_id = ?", Long.class, batchId);
+    }
+
+    private List<RecordDTO> databaseRecords(String department, Long batchId) {
+        return jdbcTemplate.query("""
+                SELECT r.full_name, r.age, p.name AS position, d.name AS department FROM record r
+                JOIN position_dictionary p ON p.id = r.position_id
+                JOIN department_dictionary d ON d.id = r.department_id
+                WHERE d.name = ? AND (? IS NULL OR r.batch_id = ?) ORDER BY r.id""",
+                (rs, rowNum) -> new RecordDTO(rs.getString("full_name"), rs.getInt("age"), rs.getString("position"),
+                        rs.getString("department")),
+                department, batchId, batchId);
+    }
+}